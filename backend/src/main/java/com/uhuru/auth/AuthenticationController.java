@@ -4,6 +4,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -24,4 +25,9 @@ public class AuthenticationController {
                 .header(HttpHeaders.AUTHORIZATION, response.token())
                 .body(response);
     }
+
+    @PostMapping("logout")
+    public void logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        authenticationService.logout(authorization);
+    }
 }
@@ -3,7 +3,9 @@ package com.uhuru.auth;
 import com.uhuru.customer.Customer;
 import com.uhuru.customer.CustomerDTO;
 import com.uhuru.customer.CustomerDTOMapper;
+import com.uhuru.exception.RequestValidationException;
 import com.uhuru.jwt.JWTUtil;
+import com.uhuru.jwt.TokenRevocationService;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -15,13 +17,16 @@ public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final CustomerDTOMapper customerDTOMapper;
     private final JWTUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthenticationService(AuthenticationManager authenticationManager,
                                  CustomerDTOMapper customerDTOMapper,
-                                 JWTUtil jwtUtil) {
+                                 JWTUtil jwtUtil,
+                                 TokenRevocationService tokenRevocationService) {
         this.authenticationManager = authenticationManager;
         this.customerDTOMapper = customerDTOMapper;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public AuthenticationResponse login(AuthenticationRequest request) {
@@ -33,8 +38,15 @@ public class AuthenticationService {
         );
         Customer principal = (Customer) authentication.getPrincipal();
         CustomerDTO customerDTO = customerDTOMapper.apply(principal);
-        String token = jwtUtil.issueToken(customerDTO.username(), customerDTO.roles());
+        String token = jwtUtil.issueToken(customerDTO.username(), customerDTO.id(), customerDTO.roles());
         return new AuthenticationResponse(token, customerDTO);
     }
 
+    public void logout(String authorization) {
+        if (!authorization.startsWith("Bearer ")) {
+            throw new RequestValidationException("expected a bearer token");
+        }
+        tokenRevocationService.revokeToken(jwtUtil.getClaims(authorization.substring(7)));
+    }
+
 }
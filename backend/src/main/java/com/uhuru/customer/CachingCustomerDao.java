@@ -0,0 +1,312 @@
+package com.uhuru.customer;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.uhuru.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+public class CachingCustomerDao implements CustomerDao, MeterBinder {
+
+    private final CustomerDao delegate;
+    private final AsyncCache<Long, Optional<Customer>> loadingCustomersById;
+    private final AsyncCache<String, Optional<Customer>> loadingCustomersByEmail;
+    private final Cache<Long, Optional<Customer>> customersById;
+    private final Cache<String, Optional<Customer>> customersByEmail;
+
+    public CachingCustomerDao(CustomerDao delegate,
+                              long maximumSize,
+                              Duration ttl,
+                              Duration negativeTtl) {
+        this.delegate = delegate;
+        this.loadingCustomersById = newCache(maximumSize, ttl, negativeTtl);
+        this.loadingCustomersByEmail = newCache(maximumSize, ttl, negativeTtl);
+        this.customersById = loadingCustomersById.synchronous();
+        this.customersByEmail = loadingCustomersByEmail.synchronous();
+    }
+
+    public record Stats(
+            long hitCount,
+            long missCount,
+            long evictionCount,
+            long size
+    ) {
+    }
+
+    public Stats stats() {
+        var byId = customersById.stats();
+        var byEmail = customersByEmail.stats();
+        return new Stats(
+                byId.hitCount() + byEmail.hitCount(),
+                byId.missCount() + byEmail.missCount(),
+                byId.evictionCount() + byEmail.evictionCount(),
+                customersById.estimatedSize() + customersByEmail.estimatedSize()
+        );
+    }
+
+    // hit, miss, eviction and size meters per cache, under the actuator's cache.* names
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, customersById, "customers.by-id");
+        CaffeineCacheMetrics.monitor(registry, customersByEmail, "customers.by-email");
+    }
+
+    public void evict(Long id, String email) {
+        if (id != null) {
+            customersById.invalidate(id);
+        }
+        if (email != null) {
+            customersByEmail.invalidate(email);
+        }
+    }
+
+    public void evictAll() {
+        customersById.invalidateAll();
+        customersByEmail.invalidateAll();
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return delegate.selectAllCustomers();
+    }
+
+    @Override
+    public List<Customer> selectCustomersAfter(Long afterId, int limit) {
+        return delegate.selectCustomersAfter(afterId, limit);
+    }
+
+    @Override
+    public List<CustomerProjection> selectCustomerProjectionsAfter(CustomerFieldSet fields, Long afterId, int limit) {
+        return delegate.selectCustomerProjectionsAfter(fields, afterId, limit);
+    }
+
+    @Override
+    public List<CustomerProjection> selectCustomerProjectionsMatching(CustomerFieldSet fields,
+                                                                      CustomerFilter filter,
+                                                                      CustomerCursor.Position after,
+                                                                      int limit) {
+        return delegate.selectCustomerProjectionsMatching(fields, filter, after, limit);
+    }
+
+    @Override
+    public long approximateCustomerCount() {
+        return delegate.approximateCustomerCount();
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Long id) {
+        return load(loadingCustomersById, id, delegate::selectCustomerById)
+                .map(CachingCustomerDao::copyOf);
+    }
+
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Long> ids) {
+        return customersById.getAll(ids, missing -> {
+                    Map<Long, Optional<Customer>> loaded = new HashMap<>();
+                    missing.forEach(id -> loaded.put(id, Optional.empty()));
+                    ReplicaRoutingDataSource.readFromPrimary(() -> delegate.selectCustomersByIds(new ArrayList<>(missing)))
+                            .forEach(customer -> loaded.put(customer.getId(), Optional.of(copyOf(customer))));
+                    return loaded;
+                })
+                .values()
+                .stream()
+                .flatMap(Optional::stream)
+                .map(CachingCustomerDao::copyOf)
+                .toList();
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        try {
+            delegate.insertCustomer(customer);
+        } finally {
+            invalidate(customer.getId(), customer.getEmail());
+        }
+    }
+
+    @Override
+    public Optional<Long> insertCustomerIfAbsent(Customer customer) {
+        Optional<Long> id = delegate.insertCustomerIfAbsent(customer);
+        invalidate(id.orElse(null), customer.getEmail());
+        return id;
+    }
+
+    @Override
+    public boolean existPersonWithEmail(String email) {
+        Optional<Customer> cached = customersByEmail.getIfPresent(email);
+        if (cached != null) {
+            return cached.isPresent();
+        }
+        boolean exists = ReplicaRoutingDataSource.readFromPrimary(() -> delegate.existPersonWithEmail(email));
+        if (!exists) {
+            customersByEmail.put(email, Optional.empty());
+        }
+        return exists;
+    }
+
+    @Override
+    public boolean existPersonWithId(Long id) {
+        Optional<Customer> cached = customersById.getIfPresent(id);
+        if (cached != null) {
+            return cached.isPresent();
+        }
+        boolean exists = ReplicaRoutingDataSource.readFromPrimary(() -> delegate.existPersonWithId(id));
+        if (!exists) {
+            customersById.put(id, Optional.empty());
+        }
+        return exists;
+    }
+
+    @Override
+    public void deleteCustomerById(Long id) {
+        String email = currentEmail(id);
+        try {
+            delegate.deleteCustomerById(id);
+        } finally {
+            invalidate(id, email);
+        }
+    }
+
+    @Override
+    public void updateCustomer(Customer customer) {
+        String oldEmail = currentEmail(customer.getId());
+        try {
+            delegate.updateCustomer(customer);
+        } finally {
+            invalidate(customer.getId(), oldEmail);
+            invalidate(customer.getId(), customer.getEmail());
+        }
+    }
+
+    @Override
+    public Optional<Customer> selectUserByEmail(String email) {
+        return load(loadingCustomersByEmail, email, delegate::selectUserByEmail)
+                .map(CachingCustomerDao::copyOf);
+    }
+
+    @Override
+    public List<CustomerProjection> searchCustomers(CustomerFieldSet fields, String query, int limit) {
+        return delegate.searchCustomers(fields, query, limit);
+    }
+
+    private String currentEmail(Long id) {
+        Optional<Customer> cached = customersById.getIfPresent(id);
+        Optional<Customer> current = cached != null ? cached : delegate.selectCustomerById(id);
+        return current.map(Customer::getEmail).orElse(null);
+    }
+
+    private void invalidate(Long id, String email) {
+        Runnable eviction = () -> {
+            if (id != null) {
+                customersById.invalidate(id);
+            }
+            if (email != null) {
+                customersByEmail.invalidate(email);
+            }
+        };
+        eviction.run();
+        // evict again once the surrounding transaction ends, in case a reader re-cached the old row meanwhile
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Read-through load that runs the query on the calling thread, outside the cache's map
+     * lock, so a blocking query never holds a monitor and pins a virtual thread to its carrier.
+     * Concurrent misses for the same key wait on the one load.
+     * <p>
+     * Loads read from the primary: a cached row is served to every client for the whole ttl,
+     * so a row from a lagging replica could undo an eviction and hide a write that long. A caller
+     * already inside a read-only transaction may hold a replica connection, so it is not cached.
+     */
+    private static <K> Optional<Customer> load(AsyncCache<K, Optional<Customer>> cache,
+                                               K key,
+                                               Function<K, Optional<Customer>> loader) {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Optional<Customer> present = cache.synchronous().getIfPresent(key);
+            return present != null ? present : loader.apply(key);
+        }
+        CompletableFuture<Optional<Customer>> loading = new CompletableFuture<>();
+        CompletableFuture<Optional<Customer>> cached = cache.get(key, (k, executor) -> loading);
+        if (cached == loading) {
+            try {
+                loading.complete(ReplicaRoutingDataSource.readFromPrimary(() -> loader.apply(key))
+                        .map(CachingCustomerDao::copyOf));
+            } catch (Throwable e) {
+                // a failed load is dropped from the cache, the next caller tries again
+                loading.completeExceptionally(e);
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static <K> AsyncCache<K, Optional<Customer>> newCache(long maximumSize, Duration ttl, Duration negativeTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<K, Optional<Customer>>() {
+                    @Override
+                    public long expireAfterCreate(K key, Optional<Customer> value, long currentTime) {
+                        return (value.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(K key, Optional<Customer> value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(K key, Optional<Customer> value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                // bulk loads and maintenance run on the caller, keeping its transaction and routing state
+                .executor(Runnable::run)
+                .buildAsync();
+    }
+
+    private static Customer copyOf(Customer customer) {
+        return new Customer(
+                customer.getId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getPassword(),
+                customer.getAge(),
+                customer.getGender()
+        );
+    }
+}
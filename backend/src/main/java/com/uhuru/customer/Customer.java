@@ -25,14 +25,16 @@ public class Customer implements UserDetails {
     @SequenceGenerator(
             name = "customer_id_seq",
             sequenceName = "customer_id_seq",
-            allocationSize = 1
+            // hint only: the increment of the database sequence wins, see
+            // hibernate.id.sequence.increment_size_mismatch_strategy
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
             generator = "customer_id_seq"
 
     )
-    private Integer id;
+    private Long id;
     @Column(nullable = false)
     private String name;
     @Column(
@@ -51,7 +53,7 @@ public class Customer implements UserDetails {
     public Customer() {
     }
 
-    public Customer(Integer id,
+    public Customer(Long id,
                     String name,
                     String email,
                     String password,
@@ -79,11 +81,11 @@ public class Customer implements UserDetails {
         this.gender = gender;
     }
 
-    public Integer getId() {
+    public Long getId() {
         return id;
     }
 
-    public void setId(Integer id) {
+    public void setId(Long id) {
         this.id = id;
     }
 
@@ -119,6 +121,28 @@ public class Customer implements UserDetails {
         this.gender = gender;
     }
 
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public void applyPatch(Customer patch) {
+        if (patch.getName() != null) {
+            this.name = patch.getName();
+        }
+        if (patch.getEmail() != null) {
+            this.email = patch.getEmail();
+        }
+        if (patch.getPassword() != null) {
+            this.password = patch.getPassword();
+        }
+        if (patch.getAge() != null) {
+            this.age = patch.getAge();
+        }
+        if (patch.getGender() != null) {
+            this.gender = patch.getGender();
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,8 @@
+package com.uhuru.customer;
+
+public record CustomerAgeBucket(
+        Gender gender,
+        int bucket,
+        long count
+) {
+}
@@ -0,0 +1,168 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uhuru.customer.CustomerBatchResult.Status;
+import com.uhuru.exception.RequestValidationException;
+import com.uhuru.security.PasswordHashingExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+@Service
+public class CustomerBatchRegistrationService {
+
+    private final CustomerJDBCDataAccessService customerDao;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public CustomerBatchRegistrationService(CustomerJDBCDataAccessService customerDao,
+                                            PasswordEncoder passwordEncoder,
+                                            PasswordHashingExecutor passwordHashingExecutor,
+                                            ObjectMapper objectMapper,
+                                            @Value("${customer.batch.chunk-size:500}") int chunkSize) {
+        this.customerDao = customerDao;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public CustomerBatchResponse registerCustomers(InputStream inputStream) throws IOException {
+
+        List<CustomerBatchResult> results = new ArrayList<>();
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        Set<String> chunkEmails = new HashSet<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RequestValidationException("request body must be a JSON array");
+            }
+
+            int index = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new RequestValidationException("malformed customer batch: the array is not closed");
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    results.add(new CustomerBatchResult(index, null, Status.INVALID, "item must be an object"));
+                    index++;
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(parser);
+                CustomerRegistrationRequest request;
+                String error;
+                try {
+                    request = objectMapper.treeToValue(node, CustomerRegistrationRequest.class);
+                    error = validate(request);
+                } catch (JsonProcessingException e) {
+                    request = null;
+                    error = e.getOriginalMessage();
+                }
+
+                if (error != null) {
+                    results.add(new CustomerBatchResult(index, node.path("email").asText(null), Status.INVALID, error));
+                } else if (!chunkEmails.add(request.email())) {
+                    results.add(new CustomerBatchResult(index, request.email(), Status.DUPLICATE, "email already taken"));
+                } else {
+                    chunk.add(new Pending(index, request));
+                }
+
+                if (chunk.size() == chunkSize) {
+                    flush(chunk, results);
+                    chunkEmails.clear();
+                }
+                index++;
+            }
+        } catch (JsonProcessingException e) {
+            throw new RequestValidationException("malformed customer batch: " + e.getOriginalMessage());
+        }
+
+        flush(chunk, results);
+        // created items are only known at flush time, after rejections further down the array
+        results.sort(Comparator.comparingInt(CustomerBatchResult::index));
+
+        int created = 0;
+        int duplicates = 0;
+        int invalid = 0;
+        for (CustomerBatchResult result : results) {
+            switch (result.status()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+            }
+        }
+
+        return new CustomerBatchResponse(created, duplicates, invalid, results);
+    }
+
+    private void flush(List<Pending> chunk, List<CustomerBatchResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // on the shared bounded pool like any other request's hashing, so a burst of batches
+        // gets 503s instead of taking every core
+        List<Customer> customers = passwordHashingExecutor.executeAll(chunk.stream()
+                .<Supplier<Customer>>map(pending -> () -> new Customer(
+                        pending.request().name(),
+                        pending.request().email(),
+                        passwordEncoder.encode(pending.request().password()),
+                        pending.request().age(),
+                        pending.request().gender()))
+                .toList());
+
+        int[] counts = customerDao.insertCustomersIgnoringDuplicates(customers);
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Pending pending = chunk.get(i);
+            boolean inserted = counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+            results.add(new CustomerBatchResult(
+                    pending.index(),
+                    pending.request().email(),
+                    inserted ? Status.CREATED : Status.DUPLICATE,
+                    inserted ? null : "email already taken"));
+        }
+
+        chunk.clear();
+    }
+
+    static String validate(CustomerRegistrationRequest request) {
+        if (request.name() == null || request.name().isBlank()) {
+            return "name is required";
+        }
+        if (request.email() == null || request.email().isBlank()) {
+            return "email is required";
+        }
+        if (request.password() == null || request.password().isBlank()) {
+            return "password is required";
+        }
+        if (request.age() == null || request.age() < 0) {
+            return "age must be a positive number";
+        }
+        if (request.gender() == null) {
+            return "gender is required";
+        }
+        return null;
+    }
+
+    private record Pending(int index, CustomerRegistrationRequest request) {
+    }
+}
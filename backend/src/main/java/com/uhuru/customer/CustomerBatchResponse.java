@@ -0,0 +1,11 @@
+package com.uhuru.customer;
+
+import java.util.List;
+
+public record CustomerBatchResponse(
+        int created,
+        int duplicates,
+        int invalid,
+        List<CustomerBatchResult> results
+) {
+}
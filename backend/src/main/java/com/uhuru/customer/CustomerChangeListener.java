@@ -0,0 +1,181 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uhuru.jwt.CustomerTokenRevocations;
+import com.uhuru.jwt.TokenRevocationService;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "customer.change-listener.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerChangeListener implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerChangeListener.class);
+
+    static final String CHANNEL = "customer_changes";
+    static final String EVICT_ALL = "*";
+    static final String EVICT_ALL_AND_REVOKE = "!";
+
+    // gender, age and count (+1 or -1) describe the row's effect on the customer stats
+    record CustomerChange(Long id, String email, Boolean revoke, Gender gender, Integer age, Integer count) {
+    }
+
+    private final DataSourceProperties dataSourceProperties;
+    private final CachingCustomerDao cachingCustomerDao;
+    private final EmailBloomFilter emailBloomFilter;
+    private final EmailBloomFilterLoader emailBloomFilterLoader;
+    private final CustomerTokenRevocations customerTokenRevocations;
+    private final TokenRevocationService tokenRevocationService;
+    private final CustomerStatsAggregate customerStatsAggregate;
+    private final ObjectMapper objectMapper;
+    private final int pollTimeoutMillis;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public CustomerChangeListener(DataSourceProperties dataSourceProperties,
+                                  CachingCustomerDao cachingCustomerDao,
+                                  EmailBloomFilter emailBloomFilter,
+                                  EmailBloomFilterLoader emailBloomFilterLoader,
+                                  CustomerTokenRevocations customerTokenRevocations,
+                                  TokenRevocationService tokenRevocationService,
+                                  CustomerStatsAggregate customerStatsAggregate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${customer.change-listener.poll-timeout-millis:500}") int pollTimeoutMillis) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.cachingCustomerDao = cachingCustomerDao;
+        this.emailBloomFilter = emailBloomFilter;
+        this.emailBloomFilterLoader = emailBloomFilterLoader;
+        this.customerTokenRevocations = customerTokenRevocations;
+        this.tokenRevocationService = tokenRevocationService;
+        this.customerStatsAggregate = customerStatsAggregate;
+        this.objectMapper = objectMapper;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "customer-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        long backoffMillis = 100;
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                    statement.execute("LISTEN " + TokenRevocationService.CHANNEL);
+                }
+                // anything changed while we were not listening is unknown, start from a clean cache
+                cachingCustomerDao.evictAll();
+                if (reconnecting) {
+                    emailBloomFilterLoader.reload();
+                    customerStatsAggregate.reconcileSoon();
+                }
+                reconnecting = true;
+                tokenRevocationService.reload();
+                backoffMillis = 100;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null) {
+                        apply(notifications);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                LOGGER.warn("Customer change listener lost its connection, retrying in {} ms", backoffMillis, e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, 10_000);
+            }
+        }
+    }
+
+    void apply(PGNotification[] notifications) {
+        for (PGNotification notification : notifications) {
+            String payload = notification.getParameter();
+            if (TokenRevocationService.CHANNEL.equals(notification.getName())) {
+                tokenRevocationService.apply(payload);
+                continue;
+            }
+            // a change too large for one payload; its rows are unknown, so the filter and stats are rebuilt
+            if (EVICT_ALL.equals(payload)) {
+                cachingCustomerDao.evictAll();
+                emailBloomFilterLoader.reload();
+                customerStatsAggregate.reconcileSoon();
+                continue;
+            }
+            if (EVICT_ALL_AND_REVOKE.equals(payload)) {
+                cachingCustomerDao.evictAll();
+                emailBloomFilterLoader.reload();
+                customerStatsAggregate.reconcileSoon();
+                customerTokenRevocations.revokeAll();
+                continue;
+            }
+            try {
+                List<CustomerChange> changes = objectMapper.readValue(payload, new TypeReference<>() {});
+                for (CustomerChange change : changes) {
+                    cachingCustomerDao.evict(change.id(), change.email());
+                    if (change.email() != null) {
+                        emailBloomFilter.put(change.email());
+                    }
+                    if (Boolean.TRUE.equals(change.revoke()) && change.id() != null) {
+                        customerTokenRevocations.revoke(change.id());
+                    }
+                    if (change.gender() != null && change.age() != null && change.count() != null) {
+                        customerStatsAggregate.apply(change.gender(), change.age(), change.count());
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Unreadable customer change payload, evicting all: {}", payload, e);
+                cachingCustomerDao.evictAll();
+                emailBloomFilterLoader.reload();
+                customerStatsAggregate.reconcileSoon();
+            }
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.uhuru.customer;
 
 import com.uhuru.jwt.JWTUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -12,31 +14,79 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerBatchRegistrationService customerBatchRegistrationService;
     private final JWTUtil jwtUtil;
 
 
-    public CustomerController(CustomerService customerService, JWTUtil jwtUtil) {
+    public CustomerController(CustomerService customerService,
+                              CustomerBatchRegistrationService customerBatchRegistrationService,
+                              JWTUtil jwtUtil) {
         this.customerService = customerService;
+        this.customerBatchRegistrationService = customerBatchRegistrationService;
         this.jwtUtil = jwtUtil;
     }
 
     @GetMapping
-    public List<CustomerDTO> getCustomers() {
-        return customerService.getAllCustomers();
+    public CustomerPage<?> getCustomers(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size,
+            @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "minAge", required = false) Integer minAge,
+            @RequestParam(value = "maxAge", required = false) Integer maxAge,
+            @RequestParam(value = "gender", required = false) String gender) {
+        CustomerFilter filter = CustomerFilter.of(minAge, maxAge, gender);
+        if (fields == null && filter.isEmpty()) {
+            return customerService.getCustomers(cursor, size, includeTotal);
+        }
+        return customerService.getCustomers(cursor, size, includeTotal, CustomerFieldSet.parse(fields), filter);
+    }
+
+    @GetMapping(params = "ids")
+    public CustomerLookup<?> getCustomersByIds(
+            @RequestParam("ids") List<Long> ids,
+            @RequestParam(value = "fields", required = false) String fields) {
+        if (fields == null) {
+            return customerService.getCustomersByIds(ids);
+        }
+        return customerService.getCustomersByIds(ids, CustomerFieldSet.parse(fields));
+    }
+
+    @GetMapping("search")
+    public List<CustomerProjection> searchCustomers(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return customerService.searchCustomers(query, limit, CustomerFieldSet.parse(fields));
+    }
+
+    @GetMapping("stats")
+    public CustomerStats getCustomerStats() {
+        return customerService.getCustomerStats();
+    }
+
+    @GetMapping("email-available")
+    public EmailAvailability checkEmailAvailability(
+            @RequestParam("email") String email) {
+        return customerService.checkEmailAvailability(email);
     }
 
     @GetMapping("{customerId}")
-    public CustomerDTO getCustomers(
-            @PathVariable("customerId") Integer customerId ) {
-        return customerService.getCustomer(customerId);
+    public Object getCustomers(
+            @PathVariable("customerId") Long customerId,
+            @RequestParam(value = "fields", required = false) String fields) {
+        if (fields == null) {
+            return customerService.getCustomer(customerId);
+        }
+        return customerService.getCustomer(customerId, CustomerFieldSet.parse(fields));
     }
 
     @PostMapping
     public ResponseEntity<?> registerCustomer(
             @RequestBody CustomerRegistrationRequest request){
 
-        customerService.addCustomer(request);
-        String jwtToken = jwtUtil.issueToken(request.email(), "ROLE_USER");
+        Long customerId = customerService.addCustomer(request);
+        String jwtToken = jwtUtil.issueToken(request.email(), customerId, List.of("ROLE_USER"));
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.AUTHORIZATION, jwtToken)
@@ -44,16 +94,21 @@ public class CustomerController {
 
     }
 
+    @PostMapping("batch")
+    public CustomerBatchResponse registerCustomers(HttpServletRequest request) throws IOException {
+        return customerBatchRegistrationService.registerCustomers(request.getInputStream());
+    }
+
     @DeleteMapping("{customerId}")
     public void deleteCustomer(
-            @PathVariable("customerId") Integer customerId
+            @PathVariable("customerId") Long customerId
     ){
         customerService.deleteCustomerById(customerId);
     }
 
     @PutMapping("{customerId}")
     public void updateCustomer(
-            @PathVariable("customerId") Integer customerId,
+            @PathVariable("customerId") Long customerId,
             @RequestBody CustomerUpdateRequest updateRequest
     ){
         customerService.updateCustomer(customerId, updateRequest);
@@ -0,0 +1,267 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+@Component
+public class CustomerCopyLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerCopyLoader.class);
+
+    private final DataSource dataSource;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public CustomerCopyLoader(DataSource dataSource,
+                              PasswordEncoder passwordEncoder,
+                              ObjectMapper objectMapper,
+                              @Value("${customer.load.chunk-size:10000}") int chunkSize,
+                              @Value("${customer.load.parallelism:0}") int parallelism) {
+        this.dataSource = dataSource;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public record LoadReport(
+            long rowsRead,
+            long rowsInserted,
+            long rowsSkipped,
+            long rowsInvalid,
+            Duration elapsed
+    ) {
+        public double rowsPerSecond() {
+            return elapsed.isZero() ? rowsRead : rowsRead * 1000.0 / elapsed.toMillis();
+        }
+    }
+
+    public LoadReport load(Path file) throws IOException, SQLException, InterruptedException {
+
+        String fileName = file.getFileName().toString();
+        CustomerExportFormat format = CustomerExportFormat.from(
+                fileName.substring(fileName.lastIndexOf('.') + 1));
+
+        long start = System.nanoTime();
+        long rowsRead = 0;
+        long rowsInvalid = 0;
+        long rowsInserted;
+
+        ForkJoinPool hashingPool = new ForkJoinPool(parallelism);
+        try (Connection connection = dataSource.getConnection();
+             BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+
+            // a temp table private to this session and dropped at commit, so concurrent loads
+            // cannot see or truncate each other's rows
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(
+                            "CREATE TEMP TABLE customer_load (LIKE customer_staging INCLUDING DEFAULTS) ON COMMIT DROP");
+                }
+
+                CopyIn copyIn = connection.unwrap(PGConnection.class)
+                        .getCopyAPI()
+                        .copyIn("COPY customer_load (name, email, password, age, gender) FROM STDIN WITH (FORMAT csv)");
+                try {
+                    List<CustomerRegistrationRequest> chunk = new ArrayList<>(chunkSize);
+                    String line;
+                    long lineNumber = 0;
+                    boolean header = format == CustomerExportFormat.CSV;
+                    while ((line = reader.readLine()) != null) {
+                        lineNumber++;
+                        if (header || line.isBlank()) {
+                            header = false;
+                            continue;
+                        }
+                        rowsRead++;
+                        CustomerRegistrationRequest request = parse(format, line, lineNumber);
+                        if (request == null) {
+                            rowsInvalid++;
+                            continue;
+                        }
+                        chunk.add(request);
+                        if (chunk.size() == chunkSize) {
+                            copy(copyIn, hash(hashingPool, chunk));
+                            chunk.clear();
+                        }
+                    }
+                    copy(copyIn, hash(hashingPool, chunk));
+                    copyIn.endCopy();
+                } finally {
+                    if (copyIn.isActive()) {
+                        copyIn.cancelCopy();
+                    }
+                }
+
+                try (Statement statement = connection.createStatement()) {
+                    rowsInserted = statement.executeUpdate("""
+                            INSERT INTO customer(name, email, password, age, gender)
+                            SELECT DISTINCT ON (email) name, email, password, age, gender
+                            FROM customer_load
+                            ORDER BY email
+                            ON CONFLICT (email) DO NOTHING
+                            """);
+                }
+                connection.commit();
+            } catch (IOException | SQLException | InterruptedException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            hashingPool.shutdown();
+        }
+
+        LoadReport report = new LoadReport(
+                rowsRead,
+                rowsInserted,
+                rowsRead - rowsInserted,
+                rowsInvalid,
+                Duration.ofNanos(System.nanoTime() - start));
+
+        LOGGER.info("Loaded {}: read={} inserted={} skipped={} invalid={} elapsed={} rows/sec={}",
+                file, report.rowsRead(), report.rowsInserted(), report.rowsSkipped(), report.rowsInvalid(),
+                report.elapsed(), String.format("%.0f", report.rowsPerSecond()));
+
+        return report;
+    }
+
+    /**
+     * Parses and validates one record the same way a batch registration does, returning null
+     * for a record that would be rejected there; it is then counted as skipped, not loaded.
+     */
+    CustomerRegistrationRequest parse(CustomerExportFormat format, String line, long lineNumber) {
+        CustomerRegistrationRequest request;
+        String error;
+        try {
+            request = format == CustomerExportFormat.NDJSON
+                    ? objectMapper.readValue(line, CustomerRegistrationRequest.class)
+                    : parseCsvRecord(line);
+            error = CustomerBatchRegistrationService.validate(request);
+        } catch (JsonProcessingException e) {
+            request = null;
+            error = e.getOriginalMessage();
+        } catch (IllegalArgumentException e) {
+            request = null;
+            error = e.getMessage();
+        }
+        if (error != null) {
+            LOGGER.debug("Skipping line {}: {}", lineNumber, error);
+            return null;
+        }
+        return request;
+    }
+
+    private static CustomerRegistrationRequest parseCsvRecord(String line) {
+        List<String> fields = parseCsvLine(line);
+        if (fields.size() != 5) {
+            throw new IllegalArgumentException("expected name,email,password,age,gender");
+        }
+        String age = fields.get(3).trim();
+        String gender = fields.get(4).trim();
+        try {
+            return new CustomerRegistrationRequest(
+                    fields.get(0),
+                    fields.get(1),
+                    fields.get(2),
+                    age.isEmpty() ? null : Integer.valueOf(age),
+                    gender.isEmpty() ? null : Gender.valueOf(gender.toUpperCase()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("age must be a number");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown gender " + gender);
+        }
+    }
+
+    private List<Customer> hash(ForkJoinPool hashingPool, List<CustomerRegistrationRequest> chunk)
+            throws InterruptedException {
+        try {
+            return hashingPool.submit(() -> chunk.parallelStream()
+                    .map(request -> new Customer(
+                            request.name(),
+                            request.email(),
+                            passwordEncoder.encode(request.password()),
+                            request.age(),
+                            request.gender()))
+                    .toList()
+            ).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("password hashing failed", e.getCause());
+        }
+    }
+
+    private static void copy(CopyIn copyIn, List<Customer> customers) throws SQLException {
+        if (customers.isEmpty()) {
+            return;
+        }
+        StringBuilder csv = new StringBuilder();
+        for (Customer customer : customers) {
+            csv.append(escapeCsv(customer.getName())).append(',')
+                    .append(escapeCsv(customer.getEmail())).append(',')
+                    .append(escapeCsv(customer.getPassword())).append(',')
+                    .append(customer.getAge()).append(',')
+                    .append(customer.getGender().name()).append('\n');
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+    }
+
+    private static String escapeCsv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,72 @@
+package com.uhuru.customer;
+
+import com.uhuru.exception.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class CustomerCursor {
+
+    private static final String PREFIX = "id:";
+    private static final String AGE_PREFIX = "age:";
+
+    /**
+     * Seek position of listings ordered by age, then id.
+     */
+    public record Position(int age, long id) {
+
+        public boolean isBefore(Customer customer) {
+            return customer.getAge() > age || customer.getAge() == age && customer.getId() > id;
+        }
+    }
+
+    private CustomerCursor() {
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException(value);
+            }
+            return Long.valueOf(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("invalid cursor [%s]".formatted(cursor));
+        }
+    }
+
+    public static String encode(Position position) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((AGE_PREFIX + position.age() + ":" + position.id())
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Position decodePosition(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(AGE_PREFIX)) {
+                throw new IllegalArgumentException(value);
+            }
+            String[] parts = value.substring(AGE_PREFIX.length()).split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(value);
+            }
+            return new Position(Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("invalid cursor [%s]".formatted(cursor));
+        }
+    }
+}
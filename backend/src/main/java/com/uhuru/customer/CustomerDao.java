@@ -1,17 +1,61 @@
 package com.uhuru.customer;
 
 
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 
 public interface CustomerDao {
     List<Customer> selectAllCustomers();
-    Optional<Customer> selectCustomerById(Integer id);
+    List<Customer> selectCustomersAfter(Long afterId, int limit);
+    long approximateCustomerCount();
+    Optional<Customer> selectCustomerById(Long id);
+    List<Customer> selectCustomersByIds(Collection<Long> ids);
     void insertCustomer(Customer customer);
+    Optional<Long> insertCustomerIfAbsent(Customer customer);
     boolean existPersonWithEmail(String email);
-    boolean existPersonWithId(Integer id);
-    void deleteCustomerById(Integer id);
+    boolean existPersonWithId(Long id);
+    void deleteCustomerById(Long id);
     void updateCustomer(Customer customer);
     Optional<Customer> selectUserByEmail(String email);
+    List<CustomerProjection> searchCustomers(CustomerFieldSet fields, String query, int limit);
+
+    default List<CustomerProjection> selectCustomerProjectionsAfter(CustomerFieldSet fields, Long afterId, int limit) {
+        return selectCustomersAfter(afterId, limit)
+                .stream()
+                .map(customer -> CustomerProjection.of(fields, customer))
+                .toList();
+    }
+
+    /**
+     * Customers matching the filter, ordered by age then id, starting after the given position.
+     * The returned projections always carry the age so the caller can continue from the last one.
+     */
+    default List<CustomerProjection> selectCustomerProjectionsMatching(CustomerFieldSet fields,
+                                                                       CustomerFilter filter,
+                                                                       CustomerCursor.Position after,
+                                                                       int limit) {
+        return selectAllCustomers()
+                .stream()
+                .filter(filter::matches)
+                .filter(customer -> after == null || after.isBefore(customer))
+                .sorted(Comparator.comparing(Customer::getAge).thenComparing(Customer::getId))
+                .limit(limit)
+                .map(customer -> CustomerProjection.of(fields, customer).withAge(customer.getAge()))
+                .toList();
+    }
+
+    default Optional<CustomerProjection> selectCustomerProjectionById(CustomerFieldSet fields, Long id) {
+        return selectCustomerById(id)
+                .map(customer -> CustomerProjection.of(fields, customer));
+    }
+
+    default List<CustomerProjection> selectCustomerProjectionsByIds(CustomerFieldSet fields, Collection<Long> ids) {
+        return selectCustomersByIds(ids)
+                .stream()
+                .map(customer -> CustomerProjection.of(fields, customer))
+                .toList();
+    }
 }
@@ -0,0 +1,27 @@
+package com.uhuru.customer;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CustomerDaoCacheConfig {
+
+    @Bean("cached")
+    public CachingCustomerDao cachingCustomerDao(
+            BeanFactory beanFactory,
+            @Value("${customer.cache.delegate:jdbc}") String delegate,
+            @Value("${customer.cache.maximum-size:10000}") long maximumSize,
+            @Value("${customer.cache.ttl:5m}") Duration ttl,
+            @Value("${customer.cache.negative-ttl:30s}") Duration negativeTtl) {
+        return new CachingCustomerDao(
+                beanFactory.getBean(delegate, CustomerDao.class),
+                maximumSize,
+                ttl,
+                negativeTtl
+        );
+    }
+}
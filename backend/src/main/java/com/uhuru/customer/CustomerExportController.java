@@ -0,0 +1,38 @@
+package com.uhuru.customer;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("api/v1/customers/export")
+public class CustomerExportController {
+
+    private final CustomerExportService customerExportService;
+
+    public CustomerExportController(CustomerExportService customerExportService) {
+        this.customerExportService = customerExportService;
+    }
+
+    @GetMapping
+    public void exportCustomers(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+
+        CustomerExportFormat exportFormat = CustomerExportFormat.from(format);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"customers.%s\"".formatted(exportFormat.getExtension())
+        );
+
+        customerExportService.export(exportFormat, response.getOutputStream());
+    }
+}
@@ -0,0 +1,78 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uhuru.exception.RequestValidationException;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public enum CustomerExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public String header() {
+            return null;
+        }
+
+        @Override
+        public String line(CustomerDTO customer, ObjectMapper objectMapper) throws JsonProcessingException {
+            return objectMapper.writeValueAsString(customer);
+        }
+    },
+    CSV("text/csv", "csv") {
+        @Override
+        public String header() {
+            return "id,name,email,gender,age";
+        }
+
+        @Override
+        public String line(CustomerDTO customer, ObjectMapper objectMapper) {
+            return Stream.of(
+                            String.valueOf(customer.id()),
+                            customer.name(),
+                            customer.email(),
+                            String.valueOf(customer.gender()),
+                            String.valueOf(customer.age()))
+                    .map(CustomerExportFormat::escapeCsv)
+                    .collect(Collectors.joining(","));
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    CustomerExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public abstract String header();
+
+    public abstract String line(CustomerDTO customer, ObjectMapper objectMapper) throws JsonProcessingException;
+
+    public static CustomerExportFormat from(String format) {
+        return Arrays.stream(values())
+                .filter(f -> f.extension.equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new RequestValidationException(
+                        "unsupported export format [%s]".formatted(format)
+                ));
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
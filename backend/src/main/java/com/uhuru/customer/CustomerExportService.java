@@ -0,0 +1,62 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+@Service
+public class CustomerExportService {
+
+    private final CustomerJDBCDataAccessService customerDao;
+    private final CustomerDTOMapper customerDTOMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+
+    public CustomerExportService(CustomerJDBCDataAccessService customerDao,
+                                 CustomerDTOMapper customerDTOMapper,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${customer.export.fetch-size:1000}") int fetchSize) {
+        this.customerDao = customerDao;
+        this.customerDTOMapper = customerDTOMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    public void export(CustomerExportFormat format, OutputStream outputStream) throws IOException {
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        if (format.header() != null) {
+            writer.write(format.header());
+            writer.write('\n');
+        }
+
+        // PgJDBC only honours the fetch size (server-side cursor) when autocommit is off
+        transactionTemplate.executeWithoutResult(status ->
+                customerDao.streamAllCustomers(fetchSize, customer -> {
+                    try {
+                        writer.write(format.line(customerDTOMapper.apply(customer), objectMapper));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+        );
+
+        writer.flush();
+    }
+}
@@ -0,0 +1,27 @@
+package com.uhuru.customer;
+
+public enum CustomerField {
+    ID("id", "id"),
+    NAME("name", "name"),
+    EMAIL("email", "email"),
+    GENDER("gender", "gender"),
+    AGE("age", "age"),
+    ROLES("roles", null),
+    USERNAME("username", "email");
+
+    private final String jsonName;
+    private final String column;
+
+    CustomerField(String jsonName, String column) {
+        this.jsonName = jsonName;
+        this.column = column;
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    public String column() {
+        return column;
+    }
+}
@@ -0,0 +1,86 @@
+package com.uhuru.customer;
+
+import com.uhuru.exception.RequestValidationException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class CustomerFieldSet {
+
+    public static final CustomerFieldSet ALL = new CustomerFieldSet(EnumSet.allOf(CustomerField.class));
+
+    private final Set<CustomerField> fields;
+    private final Set<String> columnNames;
+    private final String columns;
+
+    private CustomerFieldSet(Set<CustomerField> fields) {
+        this.fields = fields;
+        // id is always selected, it drives ordering, cursors and multi-get matching
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add(CustomerField.ID.column());
+        fields.stream()
+                .map(CustomerField::column)
+                .filter(Objects::nonNull)
+                .forEach(columns::add);
+        this.columnNames = columns;
+        this.columns = String.join(", ", columns);
+    }
+
+    public static CustomerFieldSet parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<CustomerField> parsed = EnumSet.noneOf(CustomerField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            parsed.add(Arrays.stream(CustomerField.values())
+                    .filter(field -> field.jsonName().equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new RequestValidationException(
+                            "unknown field [%s], expected one of %s".formatted(trimmed, names())
+                    )));
+        }
+        return new CustomerFieldSet(parsed);
+    }
+
+    public boolean contains(CustomerField field) {
+        return fields.contains(field);
+    }
+
+    public String columns() {
+        return columns;
+    }
+
+    public String columnsWith(CustomerField field) {
+        return field.column() == null || columnNames.contains(field.column())
+                ? columns
+                : columns + ", " + field.column();
+    }
+
+    private static String names() {
+        return Arrays.stream(CustomerField.values())
+                .map(CustomerField::jsonName)
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return fields.equals(((CustomerFieldSet) o).fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return fields.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.uhuru.customer;
+
+import com.uhuru.exception.RequestValidationException;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public record CustomerFilter(
+        Integer minAge,
+        Integer maxAge,
+        Gender gender
+) {
+
+    public static final CustomerFilter NONE = new CustomerFilter(null, null, null);
+
+    public static CustomerFilter of(Integer minAge, Integer maxAge, String gender) {
+        if (minAge != null && minAge < 0 || maxAge != null && maxAge < 0) {
+            throw new RequestValidationException("age filters must not be negative");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new RequestValidationException(
+                    "minAge [%s] must not be greater than maxAge [%s]".formatted(minAge, maxAge)
+            );
+        }
+        return new CustomerFilter(minAge, maxAge, gender == null ? null : parseGender(gender));
+    }
+
+    public boolean isEmpty() {
+        return minAge == null && maxAge == null && gender == null;
+    }
+
+    public boolean matches(Customer customer) {
+        return (minAge == null || customer.getAge() >= minAge)
+                && (maxAge == null || customer.getAge() <= maxAge)
+                && (gender == null || customer.getGender() == gender);
+    }
+
+    private static Gender parseGender(String gender) {
+        try {
+            return Gender.valueOf(gender.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException(
+                    "unknown gender [%s], expected one of %s".formatted(gender, Arrays.toString(Gender.values()))
+            );
+        }
+    }
+}
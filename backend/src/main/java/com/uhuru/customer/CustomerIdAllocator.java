@@ -0,0 +1,55 @@
+package com.uhuru.customer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Node-local pooled-lo allocator over {@code customer_id_seq}. Every {@code nextval} reserves
+ * the block {@code [value, value + increment - 1]}, the same contract Hibernate's pooled-lo
+ * optimizer uses, so JDBC and JPA writers can share the sequence without colliding.
+ */
+@Component
+public class CustomerIdAllocator {
+
+    private static final String NEXT_BLOCK_SQL = """
+            SELECT nextval('customer_id_seq') AS lo, increment_by
+            FROM pg_sequences
+            WHERE schemaname = current_schema() AND sequencename = 'customer_id_seq'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long next;
+    private long end;
+
+    public CustomerIdAllocator(JdbcTemplate jdbcTemplate,
+                               @Value("${customer.id.block-allocation.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next >= end) {
+                // the increment is read with every block so an ALTER SEQUENCE takes effect without a restart
+                long[] block = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL,
+                        (rs, rowNum) -> new long[]{rs.getLong("lo"), rs.getLong("increment_by")});
+                next = block[0];
+                end = block[0] + block[1];
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -2,10 +2,16 @@ package com.uhuru.customer;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 
 @Repository("jdbc")
@@ -13,13 +19,21 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
 
     private final JdbcTemplate jdbcTemplate;
     private final CustomerRowMapper customerRowMapper;
+    private final EmailBloomFilter emailBloomFilter;
+    private final CustomerIdAllocator customerIdAllocator;
 
-    public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate, CustomerRowMapper customerRowMapper){
+    public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate,
+                                         CustomerRowMapper customerRowMapper,
+                                         EmailBloomFilter emailBloomFilter,
+                                         CustomerIdAllocator customerIdAllocator){
         this.jdbcTemplate = jdbcTemplate;
         this.customerRowMapper = customerRowMapper;
+        this.emailBloomFilter = emailBloomFilter;
+        this.customerIdAllocator = customerIdAllocator;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Customer> selectAllCustomers() {
 
         String sql = """
@@ -32,8 +46,80 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
         return customers;
     }
 
+    public void streamAllCustomers(int fetchSize, Consumer<Customer> consumer) {
+
+        String sql = """
+                        SELECT id, name, email, password, age, gender
+                        FROM customer
+                        ORDER BY id
+                    """;
+
+        int[] rowNum = {0};
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                },
+                rs -> {
+                    consumer.accept(customerRowMapper.mapRow(rs, rowNum[0]++));
+                }
+        );
+    }
+
+    public void streamAllEmails(int fetchSize, Consumer<String> consumer) {
+
+        String sql = """
+                        SELECT email
+                        FROM customer
+                    """;
+
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                },
+                rs -> {
+                    consumer.accept(rs.getString("email"));
+                }
+        );
+    }
+
     @Override
-    public Optional<Customer> selectCustomerById(Integer id) {
+    @Transactional(readOnly = true)
+    public List<Customer> selectCustomersAfter(Long afterId, int limit) {
+
+        String sql = """
+                        SELECT id, name, email, password, age, gender
+                        FROM customer
+                        WHERE id > ?
+                        ORDER BY id
+                        LIMIT ?
+                    """;
+
+        return jdbcTemplate.query(sql, customerRowMapper, afterId == null ? 0L : afterId, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long approximateCustomerCount() {
+
+        String sql = """
+                        SELECT GREATEST(reltuples, 0)::bigint
+                        FROM pg_class
+                        WHERE oid = 'customer'::regclass
+                     """;
+
+        Long result = jdbcTemplate.queryForObject(sql, Long.class);
+        return result == null ? 0 : result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Customer> selectCustomerById(Long id) {
 
         String sql = """
                         SELECT id, name, email, password, age , gender
@@ -47,16 +133,36 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
 
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Customer> selectCustomersByIds(Collection<Long> ids) {
+
+        String sql = """
+                        SELECT id, name, email, password, age, gender
+                        FROM customer
+                        WHERE id = ANY(?)
+                    """;
+
+        return jdbcTemplate.query(
+                sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                customerRowMapper
+        );
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
 
         String sql = """
-                        INSERT INTO customer(name, email, password, age, gender)
-                        VALUES(?,?,?,?, ?)
+                        INSERT INTO customer(id, name, email, password, age, gender)
+                        VALUES(COALESCE(?, nextval('customer_id_seq')),?,?,?,?,?)
                      """;
 
+        emailBloomFilter.put(customer.getEmail());
+
         int result = jdbcTemplate.update(
                 sql,
+                allocateId(),
                 customer.getName(),
                 customer.getEmail(),
                 customer.getPassword(),
@@ -67,8 +173,64 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
     }
 
     @Override
+    public Optional<Long> insertCustomerIfAbsent(Customer customer) {
+
+        String sql = """
+                        INSERT INTO customer(id, name, email, password, age, gender)
+                        VALUES(COALESCE(?, nextval('customer_id_seq')),?,?,?,?,?)
+                        ON CONFLICT (email) DO NOTHING
+                        RETURNING id
+                     """;
+
+        emailBloomFilter.put(customer.getEmail());
+
+        Optional<Long> id = jdbcTemplate.queryForList(
+                sql,
+                Long.class,
+                allocateId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getPassword(),
+                customer.getAge(),
+                customer.getGender().name()
+        ).stream().findFirst();
+
+        id.ifPresent(customer::setId);
+        return id;
+    }
+
+    public int[] insertCustomersIgnoringDuplicates(List<Customer> customers) {
+
+        String sql = """
+                        INSERT INTO customer(id, name, email, password, age, gender)
+                        VALUES(COALESCE(?, nextval('customer_id_seq')),?,?,?,?,?)
+                        ON CONFLICT (email) DO NOTHING
+                     """;
+
+        customers.forEach(customer -> emailBloomFilter.put(customer.getEmail()));
+
+        List<Object[]> batchArgs = customers.stream()
+                .map(customer -> new Object[]{
+                        allocateId(),
+                        customer.getName(),
+                        customer.getEmail(),
+                        customer.getPassword(),
+                        customer.getAge(),
+                        customer.getGender().name()
+                })
+                .toList();
+
+        return jdbcTemplate.batchUpdate(sql, batchArgs);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public boolean existPersonWithEmail(String email) {
 
+        if(!emailBloomFilter.mightContain(email)){
+            return false;
+        }
+
         String sql = """
                         SELECT count(id)
                         FROM customer
@@ -81,7 +243,8 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
     }
 
     @Override
-    public boolean existPersonWithId(Integer id) {
+    @Transactional(readOnly = true)
+    public boolean existPersonWithId(Long id) {
         String sql = """
                         SELECT count(id)
                         FROM customer
@@ -92,7 +255,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
     }
 
     @Override
-    public void deleteCustomerById(Integer id) {
+    public void deleteCustomerById(Long id) {
         String sql = """
                         DELETE 
                         FROM customer
@@ -106,41 +269,51 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
     @Override
     public void updateCustomer(Customer customer) {
 
+        List<String> assignments = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+
         if(Objects.nonNull(customer.getName())){
-            String sql = """
-                            UPDATE customer SET name = ?
-                            WHERE id = ?
-                         """;
-            jdbcTemplate.update(sql, customer.getName(),customer.getId());
+            assignments.add("name = ?");
+            args.add(customer.getName());
         }
 
         if(Objects.nonNull(customer.getEmail())){
-            String sql = """
-                            UPDATE customer SET email = ?
-                            WHERE id = ?
-                         """;
-            jdbcTemplate.update(sql, customer.getEmail(),customer.getId());
+            emailBloomFilter.put(customer.getEmail());
+            assignments.add("email = ?");
+            args.add(customer.getEmail());
         }
 
-        if(Objects.nonNull(customer.getEmail())){
-            String sql = """
-                            UPDATE customer SET password = ?
-                            WHERE id = ?
-                         """;
-            jdbcTemplate.update(sql, customer.getPassword(),customer.getId());
-
+        if(Objects.nonNull(customer.getPassword())){
+            assignments.add("password = ?");
+            args.add(customer.getPassword());
         }
 
         if(Objects.nonNull(customer.getAge())){
-            String sql = """
-                            UPDATE customer SET age = ?
-                            WHERE id = ?
-                         """;
-            jdbcTemplate.update(sql, customer.getAge(),customer.getId());
+            assignments.add("age = ?");
+            args.add(customer.getAge());
         }
+
+        if(Objects.nonNull(customer.getGender())){
+            assignments.add("gender = ?");
+            args.add(customer.getGender().name());
+        }
+
+        if(assignments.isEmpty()){
+            return;
+        }
+
+        args.add(customer.getId());
+
+        String sql = """
+                        UPDATE customer SET %s
+                        WHERE id = ?
+                     """.formatted(String.join(", ", assignments));
+
+        jdbcTemplate.update(sql, args.toArray());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Customer> selectUserByEmail(String email) {
         String sql = """
                         SELECT id, name, email, password, age , gender
@@ -152,4 +325,151 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
                 .stream()
                 .findFirst();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerProjection> selectCustomerProjectionsAfter(CustomerFieldSet fields, Long afterId, int limit) {
+
+        String sql = """
+                        SELECT %s
+                        FROM customer
+                        WHERE id > ?
+                        ORDER BY id
+                        LIMIT ?
+                    """.formatted(fields.columns());
+
+        return jdbcTemplate.query(sql, new CustomerProjectionRowMapper(fields), afterId == null ? 0L : afterId, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CustomerProjection> selectCustomerProjectionById(CustomerFieldSet fields, Long id) {
+
+        String sql = """
+                        SELECT %s
+                        FROM customer
+                        WHERE id = ?
+                    """.formatted(fields.columns());
+
+        return jdbcTemplate.query(sql, new CustomerProjectionRowMapper(fields), id)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerProjection> selectCustomerProjectionsByIds(CustomerFieldSet fields, Collection<Long> ids) {
+
+        String sql = """
+                        SELECT %s
+                        FROM customer
+                        WHERE id = ANY(?)
+                    """.formatted(fields.columns());
+
+        return jdbcTemplate.query(
+                sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                new CustomerProjectionRowMapper(fields)
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerProjection> searchCustomers(CustomerFieldSet fields, String query, int limit) {
+
+        String sql = """
+                        SELECT %s
+                        FROM customer
+                        WHERE name ILIKE ? OR email ILIKE ?
+                        ORDER BY (name ILIKE ? OR email ILIKE ?) DESC,
+                                 GREATEST(similarity(name, ?), similarity(email, ?)) DESC,
+                                 id
+                        LIMIT ?
+                    """.formatted(fields.columns());
+
+        String contains = CustomerSearch.containsPattern(query);
+        String prefix = CustomerSearch.prefixPattern(query);
+
+        return jdbcTemplate.query(
+                sql,
+                new CustomerProjectionRowMapper(fields),
+                contains, contains,
+                prefix, prefix,
+                query, query,
+                limit
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerProjection> selectCustomerProjectionsMatching(CustomerFieldSet fields,
+                                                                      CustomerFilter filter,
+                                                                      CustomerCursor.Position after,
+                                                                      int limit) {
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+
+        if(Objects.nonNull(filter.gender())){
+            conditions.add("gender = ?");
+            args.add(filter.gender().name());
+        }
+
+        if(Objects.nonNull(filter.minAge())){
+            conditions.add("age >= ?");
+            args.add(filter.minAge());
+        }
+
+        if(Objects.nonNull(filter.maxAge())){
+            conditions.add("age <= ?");
+            args.add(filter.maxAge());
+        }
+
+        if(Objects.nonNull(after)){
+            conditions.add("(age, id) > (?, ?)");
+            args.add(after.age());
+            args.add(after.id());
+        }
+
+        args.add(limit);
+
+        // served by the (gender, age, id) and (age, id) indexes, both for the filter and the order
+        String sql = """
+                        SELECT %s
+                        FROM customer
+                        %s
+                        ORDER BY age, id
+                        LIMIT ?
+                    """.formatted(
+                fields.columnsWith(CustomerField.AGE),
+                conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions)
+        );
+
+        return jdbcTemplate.query(sql, new CustomerProjectionRowMapper(fields, true), args.toArray());
+    }
+
+    public List<CustomerAgeBucket> countCustomersByGenderAndAgeBucket(int bucketWidth, int maxBucket) {
+
+        String sql = """
+                        SELECT gender, GREATEST(LEAST(age / ?, ?), 0) AS bucket, count(*) AS count
+                        FROM customer
+                        GROUP BY 1, 2
+                    """;
+
+        return jdbcTemplate.query(
+                sql,
+                (rs, rowNum) -> new CustomerAgeBucket(
+                        Gender.valueOf(rs.getString("gender")),
+                        rs.getInt("bucket"),
+                        rs.getLong("count")
+                ),
+                bucketWidth,
+                maxBucket
+        );
+    }
+
+    private Long allocateId() {
+        // without the node-local allocator every row falls back to its own nextval round trip
+        return customerIdAllocator.isEnabled() ? customerIdAllocator.nextId() : null;
+    }
 }
@@ -1,17 +1,35 @@
 package com.uhuru.customer;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository("jpa")
 public class CustomerJPADataAccessService implements CustomerDao{
 
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "customer_email_unique";
+
     private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
+    private final int batchSize;
 
-    public CustomerJPADataAccessService(CustomerRepository customerRepository) {
+    public CustomerJPADataAccessService(CustomerRepository customerRepository,
+                                        EntityManager entityManager,
+                                        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.customerRepository = customerRepository;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
     }
 
 
@@ -21,33 +39,114 @@ public class CustomerJPADataAccessService implements CustomerDao{
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Integer id) {
+    public List<Customer> selectCustomersAfter(Long afterId, int limit) {
+        return customerRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId,
+                PageRequest.of(0, limit)
+        );
+    }
+
+    @Override
+    public long approximateCustomerCount() {
+        return customerRepository.count();
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Long id) {
         return customerRepository.findById(id);
     }
 
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Long> ids) {
+        return customerRepository.findAllById(ids);
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
         customerRepository.save(customer);
     }
 
+    /**
+     * Persists the customers in JDBC batches, flushing and clearing the persistence context after
+     * every batch so memory stays flat however many customers are passed in.
+     */
+    @Transactional
+    public void insertCustomers(List<Customer> customers) {
+        for (int i = 0; i < customers.size(); i++) {
+            entityManager.persist(customers.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Inserts the customers through a {@link StatelessSession} in a transaction of its own. There is
+     * no persistence context, dirty checking or cascading, which suits very large loads.
+     */
+    public void insertCustomersStateless(List<Customer> customers) {
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(batchSize);
+            Transaction transaction = session.beginTransaction();
+            try {
+                customers.forEach(session::insert);
+                transaction.commit();
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Long> insertCustomerIfAbsent(Customer customer) {
+        try {
+            return Optional.of(customerRepository.saveAndFlush(customer).getId());
+        } catch (DataIntegrityViolationException e) {
+            // only a taken email means "already there"; any other violation is a real failure
+            if (violates(e, EMAIL_UNIQUE_CONSTRAINT)) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    private static boolean violates(Throwable e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && constraintName.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean existPersonWithEmail(String email) {
         return customerRepository.existsCustomerByEmail(email);
     }
 
     @Override
-    public boolean existPersonWithId(Integer id) {
+    public boolean existPersonWithId(Long id) {
         return customerRepository.existsCustomerById(id);
     }
 
     @Override
-    public void deleteCustomerById(Integer id) {
+    public void deleteCustomerById(Long id) {
         customerRepository.deleteById(id);
     }
 
     @Override
     public void updateCustomer(Customer customer) {
-        customerRepository.save(customer);
+        customerRepository.findById(customer.getId())
+                .ifPresent(existing -> {
+                    existing.applyPatch(customer);
+                    customerRepository.save(existing);
+                });
     }
 
     @Override
@@ -55,4 +154,34 @@ public class CustomerJPADataAccessService implements CustomerDao{
         return customerRepository.findCustomerByEmail(email);
     }
 
+    @Override
+    public List<CustomerProjection> searchCustomers(CustomerFieldSet fields, String query, int limit) {
+        return customerRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrderByIdAsc(
+                        query, query, PageRequest.of(0, limit))
+                .stream()
+                .map(customer -> CustomerProjection.of(fields, customer))
+                .toList();
+    }
+
+    @Override
+    public List<CustomerProjection> selectCustomerProjectionsMatching(CustomerFieldSet fields,
+                                                                      CustomerFilter filter,
+                                                                      CustomerCursor.Position after,
+                                                                      int limit) {
+        // open bounds become the extremes so every page is one range scan on (age, id)
+        int minAge = filter.minAge() == null ? Integer.MIN_VALUE : filter.minAge();
+        int maxAge = filter.maxAge() == null ? Integer.MAX_VALUE : filter.maxAge();
+        int afterAge = after == null ? Integer.MIN_VALUE : after.age();
+        long afterId = after == null ? Long.MIN_VALUE : after.id();
+        PageRequest page = PageRequest.of(0, limit);
+
+        List<Customer> customers = filter.gender() == null
+                ? customerRepository.findByAgeBetweenAfter(minAge, maxAge, afterAge, afterId, page)
+                : customerRepository.findByGenderAndAgeBetweenAfter(
+                        filter.gender(), minAge, maxAge, afterAge, afterId, page);
+        return customers.stream()
+                .map(customer -> CustomerProjection.of(fields, customer).withAge(customer.getAge()))
+                .toList();
+    }
+
 }
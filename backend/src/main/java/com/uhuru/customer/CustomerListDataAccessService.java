@@ -1,87 +1,161 @@
 package com.uhuru.customer;
 
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Repository("list")
 public class CustomerListDataAccessService implements CustomerDao{
 
-    private static List<Customer> customers;
+    private final Map<Long, Customer> customersById = new ConcurrentHashMap<>();
+    private final Map<String, Long> customerIdsByEmail = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> orderedIds = new ConcurrentSkipListSet<>();
+    private final AtomicLong idSequence = new AtomicLong();
 
-    static {
+    public CustomerListDataAccessService() {
 
-        customers = new ArrayList<>();
-
-        Customer alex = new Customer(
-                1,
+        insertCustomer(new Customer(
                 "Alex",
                 "alex@gmail.com",
                 "password",
                 21,
                 Gender.MALE
-                );
+        ));
 
-        Customer jamila = new Customer(
-                2,
+        insertCustomer(new Customer(
                 "jamila",
                 "jamila@gmail.com",
                 "password",
                 19,
                 Gender.MALE
-        );
-
-        customers.add(alex);
-        customers.add(jamila);
+        ));
     }
 
     @Override
     public List<Customer> selectAllCustomers() {
-        return customers;
+        return orderedIds.stream()
+                .map(customersById::get)
+                .filter(Objects::nonNull)
+                .map(CustomerListDataAccessService::copyOf)
+                .toList();
+    }
+
+    @Override
+    public List<Customer> selectCustomersAfter(Long afterId, int limit) {
+        return orderedIds.tailSet(afterId == null ? 0L : afterId, false)
+                .stream()
+                .map(customersById::get)
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .map(CustomerListDataAccessService::copyOf)
+                .toList();
+    }
+
+    @Override
+    public long approximateCustomerCount() {
+        return customersById.size();
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Long customerId) {
+        return Optional.ofNullable(customersById.get(customerId))
+                .map(CustomerListDataAccessService::copyOf);
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Integer customerId) {
-        return customers.stream().filter(customer -> customer.getId().equals(customerId))
-                .findFirst();
+    public List<Customer> selectCustomersByIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(customersById::get)
+                .filter(Objects::nonNull)
+                .map(CustomerListDataAccessService::copyOf)
+                .toList();
     }
 
     @Override
     public void insertCustomer(Customer customer) {
-        customers.add(customer);
+        if (insertCustomerIfAbsent(customer).isEmpty()) {
+            throw new DuplicateKeyException(
+                    "customer with email [%s] already exists".formatted(customer.getEmail()));
+        }
+    }
+
+    @Override
+    public Optional<Long> insertCustomerIfAbsent(Customer customer) {
+        long id = idSequence.incrementAndGet();
+        if (customerIdsByEmail.putIfAbsent(customer.getEmail(), id) != null) {
+            return Optional.empty();
+        }
+        customer.setId(id);
+        customersById.put(id, copyOf(customer));
+        orderedIds.add(id);
+        return Optional.of(id);
     }
 
     @Override
     public boolean existPersonWithEmail(String email) {
-        return customers.stream()
-                .anyMatch(customer -> customer.getEmail().equals(email));
+        return customerIdsByEmail.containsKey(email);
     }
 
     @Override
-    public boolean existPersonWithId(Integer id) {
-        return customers.stream()
-                .anyMatch(customer -> customer.getId().equals(id));
+    public boolean existPersonWithId(Long id) {
+        return customersById.containsKey(id);
     }
 
     @Override
-    public void deleteCustomerById(Integer id) {
-        customers.stream().filter(c -> c.getId().equals(id))
-                        .findFirst()
-                        .ifPresent(customers::remove);
+    public void deleteCustomerById(Long id) {
+        customersById.computeIfPresent(id, (key, existing) -> {
+            orderedIds.remove(key);
+            customerIdsByEmail.remove(existing.getEmail(), key);
+            return null;
+        });
     }
 
     @Override
     public void updateCustomer(Customer customer) {
-        customers.add(customer);
+        customersById.computeIfPresent(customer.getId(), (id, existing) -> {
+            String newEmail = customer.getEmail();
+            if (newEmail != null && !newEmail.equals(existing.getEmail())) {
+                if (customerIdsByEmail.putIfAbsent(newEmail, id) != null) {
+                    throw new DuplicateKeyException(
+                            "customer with email [%s] already exists".formatted(newEmail));
+                }
+                customerIdsByEmail.remove(existing.getEmail(), id);
+            }
+            Customer updated = copyOf(existing);
+            updated.applyPatch(customer);
+            return updated;
+        });
     }
 
     @Override
     public Optional<Customer> selectUserByEmail(String email) {
-        return customers.stream().filter(customer -> customer.getEmail().equals(email))
-                .findFirst();
+        return Optional.ofNullable(customerIdsByEmail.get(email))
+                .flatMap(this::selectCustomerById);
     }
 
+    @Override
+    public List<CustomerProjection> searchCustomers(CustomerFieldSet fields, String query, int limit) {
+        return CustomerSearch.scan(customersById.values().stream(), fields, query, limit);
+    }
+
+    private static Customer copyOf(Customer customer) {
+        return new Customer(
+                customer.getId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getPassword(),
+                customer.getAge(),
+                customer.getGender()
+        );
+    }
 
 }
@@ -0,0 +1,9 @@
+package com.uhuru.customer;
+
+import java.util.List;
+
+public record CustomerLookup<T>(
+        List<T> customers,
+        List<Long> missingIds
+) {
+}
@@ -0,0 +1,638 @@
+package com.uhuru.customer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+@Repository("mmap")
+@ConditionalOnProperty(name = "customer.mmap.path")
+public class CustomerMappedFileDataAccessService implements CustomerDao, AutoCloseable {
+
+    static final int MAGIC = 0x43555354;
+    // 8 byte ids and 2 byte ages; older stores are not read and have to be rebuilt
+    static final int VERSION = 3;
+
+    static final int HEADER_SIZE = 4096;
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_RECORD_COUNT = 8;
+    static final int HEADER_LIVE_COUNT = 16;
+    static final int HEADER_LAST_ID = 24;
+
+    static final int RECORD_SIZE = 512;
+    private static final int ID = 0;
+    private static final int STATUS = 8;
+    private static final int GENDER = 9;
+    private static final int AGE = 10;
+    private static final int NAME = 12;
+    private static final int NAME_MAX = 160;
+    private static final int EMAIL = NAME + 2 + NAME_MAX;
+    private static final int EMAIL_MAX = 254;
+    private static final int PASSWORD = EMAIL + 2 + EMAIL_MAX;
+    private static final int PASSWORD_MAX = 80;
+
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 2;
+
+    private static final int MAX_CAPACITY = (1 << 25) - 1;
+
+    private static final int RECORDS_PER_SEGMENT_SHIFT = 18;
+    private static final int RECORDS_PER_SEGMENT = 1 << RECORDS_PER_SEGMENT_SHIFT;
+    private static final long SEGMENT_SIZE = (long) RECORDS_PER_SEGMENT * RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private final ReentrantLock segmentsLock = new ReentrantLock();
+    private final IdIndex idIndex;
+    private final EmailIndex emailIndex;
+    private final int capacity;
+    private final StampedLock lock = new StampedLock();
+
+    private int recordCount;
+    private long liveCount;
+    private long lastId;
+
+    public CustomerMappedFileDataAccessService(
+            @Value("${customer.mmap.path}") Path path,
+            @Value("${customer.mmap.capacity:1000000}") int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "customer.mmap.capacity must be between 1 and %s".formatted(MAX_CAPACITY));
+        }
+        this.capacity = capacity;
+        try {
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not map customer store " + path, e);
+        }
+
+        if (header.getInt(HEADER_MAGIC) == 0) {
+            header.putInt(HEADER_MAGIC, MAGIC);
+            header.putInt(HEADER_VERSION, VERSION);
+        } else if (header.getInt(HEADER_MAGIC) != MAGIC) {
+            throw new IllegalStateException("%s is not a customer store".formatted(path));
+        } else if (header.getInt(HEADER_VERSION) != VERSION) {
+            throw new IllegalStateException("%s is a version %d customer store, expected version %d"
+                    .formatted(path, header.getInt(HEADER_VERSION), VERSION));
+        }
+
+        this.recordCount = (int) header.getLong(HEADER_RECORD_COUNT);
+        this.liveCount = header.getLong(HEADER_LIVE_COUNT);
+        this.lastId = header.getLong(HEADER_LAST_ID);
+
+        // power of two with at most 50% load so linear probes stay short
+        int indexCapacity = Integer.highestOneBit(capacity) << 2;
+        this.idIndex = new IdIndex(indexCapacity);
+        this.emailIndex = new EmailIndex(indexCapacity);
+
+        for (int record = 0; record < recordCount; record++) {
+            ByteBuffer segment = segment(record);
+            int offset = offset(record);
+            if (segment.get(offset + STATUS) == LIVE) {
+                idIndex.put(segment.getLong(offset + ID), record);
+                emailIndex.put(emailHash(readString(segment, offset + EMAIL)), record);
+            }
+        }
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return read(() -> {
+            List<Customer> customers = new ArrayList<>((int) liveCount);
+            for (int record = 0; record < recordCount; record++) {
+                if (isLive(record)) {
+                    customers.add(decode(record));
+                }
+            }
+            return customers;
+        });
+    }
+
+    @Override
+    public List<Customer> selectCustomersAfter(Long afterId, int limit) {
+        long after = afterId == null ? 0 : afterId;
+        return read(() -> {
+            // ids are allocated in record order, so the first candidate can be binary searched
+            int low = 0;
+            int high = recordCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (segment(mid).getLong(offset(mid) + ID) <= after) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            List<Customer> customers = new ArrayList<>(limit);
+            for (int record = low; record < recordCount && customers.size() < limit; record++) {
+                if (isLive(record)) {
+                    customers.add(decode(record));
+                }
+            }
+            return customers;
+        });
+    }
+
+    @Override
+    public long approximateCustomerCount() {
+        return liveCount;
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Long id) {
+        return read(() -> {
+            int record = recordOf(id);
+            return record < 0 ? Optional.empty() : Optional.of(decode(record));
+        });
+    }
+
+    @Override
+    public List<Customer> selectCustomersByIds(Collection<Long> ids) {
+        return read(() -> {
+            List<Customer> customers = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                int record = recordOf(id);
+                if (record >= 0) {
+                    customers.add(decode(record));
+                }
+            }
+            return customers;
+        });
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        if (insertCustomerIfAbsent(customer).isEmpty()) {
+            throw new DuplicateKeyException(
+                    "customer with email [%s] already exists".formatted(customer.getEmail()));
+        }
+    }
+
+    @Override
+    public Optional<Long> insertCustomerIfAbsent(Customer customer) {
+        long stamp = lock.writeLock();
+        try {
+            if (findByEmail(customer.getEmail()) >= 0) {
+                return Optional.empty();
+            }
+            if (recordCount >= capacity) {
+                throw new IllegalStateException("customer store is full (%s records)".formatted(capacity));
+            }
+            long id = lastId + 1;
+            int record = recordCount;
+            customer.setId(id);
+            encode(record, customer);
+
+            idIndex.put(id, record);
+            emailIndex.put(emailHash(customer.getEmail()), record);
+
+            lastId = id;
+            recordCount++;
+            liveCount++;
+            writeHeader();
+            return Optional.of(id);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean existPersonWithEmail(String email) {
+        return read(() -> findByEmail(email) >= 0);
+    }
+
+    @Override
+    public boolean existPersonWithId(Long id) {
+        return read(() -> recordOf(id) >= 0);
+    }
+
+    @Override
+    public void deleteCustomerById(Long id) {
+        long stamp = lock.writeLock();
+        try {
+            int record = recordOf(id);
+            if (record < 0) {
+                return;
+            }
+            ByteBuffer segment = segment(record);
+            int offset = offset(record);
+            emailIndex.remove(emailHash(readString(segment, offset + EMAIL)), record);
+            idIndex.remove(id);
+            segment.put(offset + STATUS, DELETED);
+            liveCount--;
+            writeHeader();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void updateCustomer(Customer customer) {
+        long stamp = lock.writeLock();
+        try {
+            int record = recordOf(customer.getId());
+            if (record < 0) {
+                return;
+            }
+            Customer existing = decode(record);
+            String oldEmail = existing.getEmail();
+            String newEmail = customer.getEmail();
+            boolean emailChanged = newEmail != null && !newEmail.equals(oldEmail);
+            if (emailChanged && findByEmail(newEmail) >= 0) {
+                throw new DuplicateKeyException(
+                        "customer with email [%s] already exists".formatted(newEmail));
+            }
+
+            existing.applyPatch(customer);
+            encode(record, existing);
+
+            if (emailChanged) {
+                emailIndex.remove(emailHash(oldEmail), record);
+                emailIndex.put(emailHash(newEmail), record);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Optional<Customer> selectUserByEmail(String email) {
+        return read(() -> {
+            int record = findByEmail(email);
+            return record < 0 ? Optional.empty() : Optional.of(decode(record));
+        });
+    }
+
+    @Override
+    public List<CustomerProjection> searchCustomers(CustomerFieldSet fields, String query, int limit) {
+        return CustomerSearch.scan(selectAllCustomers().stream(), fields, query, limit);
+    }
+
+    @Override
+    public void close() {
+        long stamp = lock.writeLock();
+        try {
+            header.force();
+            segments.forEach(MappedByteBuffer::force);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // a concurrent write tore the record; retry under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int findByEmail(String email) {
+        byte[] bytes = email.getBytes(StandardCharsets.UTF_8);
+        return emailIndex.find(emailHash(email), record -> {
+            ByteBuffer segment = segment(record);
+            int offset = offset(record) + EMAIL;
+            int length = segment.getShort(offset);
+            if (length != bytes.length) {
+                return false;
+            }
+            byte[] stored = new byte[length];
+            segment.get(offset + 2, stored);
+            return Arrays.equals(stored, bytes);
+        });
+    }
+
+    private boolean isLive(int record) {
+        return segment(record).get(offset(record) + STATUS) == LIVE;
+    }
+
+    private Customer decode(int record) {
+        ByteBuffer segment = segment(record);
+        int offset = offset(record);
+        return new Customer(
+                segment.getLong(offset + ID),
+                readString(segment, offset + NAME),
+                readString(segment, offset + EMAIL),
+                readString(segment, offset + PASSWORD),
+                (int) segment.getShort(offset + AGE),
+                Gender.values()[segment.get(offset + GENDER)]
+        );
+    }
+
+    private void encode(int record, Customer customer) {
+        ByteBuffer segment = segment(record);
+        int offset = offset(record);
+        if (customer.getAge() < 0 || customer.getAge() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("age out of range: %s".formatted(customer.getAge()));
+        }
+        segment.putLong(offset + ID, customer.getId());
+        segment.put(offset + GENDER, (byte) customer.getGender().ordinal());
+        segment.putShort(offset + AGE, customer.getAge().shortValue());
+        writeString(segment, offset + NAME, customer.getName(), NAME_MAX);
+        writeString(segment, offset + EMAIL, customer.getEmail(), EMAIL_MAX);
+        writeString(segment, offset + PASSWORD, customer.getPassword(), PASSWORD_MAX);
+        segment.put(offset + STATUS, LIVE);
+    }
+
+    private int recordOf(Long id) {
+        if (id == null || id <= 0) {
+            return -1;
+        }
+        return idIndex.get(id);
+    }
+
+    private void writeHeader() {
+        header.putLong(HEADER_RECORD_COUNT, recordCount);
+        header.putLong(HEADER_LIVE_COUNT, liveCount);
+        header.putLong(HEADER_LAST_ID, lastId);
+    }
+
+    private ByteBuffer segment(int record) {
+        int index = record >>> RECORDS_PER_SEGMENT_SHIFT;
+        if (index < segments.size()) {
+            return segments.get(index);
+        }
+        // mapping is a blocking system call; a monitor here would pin a virtual thread's carrier
+        segmentsLock.lock();
+        try {
+            while (segments.size() <= index) {
+                try {
+                    segments.add(channel.map(
+                            FileChannel.MapMode.READ_WRITE,
+                            HEADER_SIZE + segments.size() * SEGMENT_SIZE,
+                            SEGMENT_SIZE));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return segments.get(index);
+        } finally {
+            segmentsLock.unlock();
+        }
+    }
+
+    private static int offset(int record) {
+        return (record & (RECORDS_PER_SEGMENT - 1)) * RECORD_SIZE;
+    }
+
+    private static String readString(ByteBuffer segment, int offset) {
+        byte[] bytes = new byte[segment.getShort(offset)];
+        segment.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(ByteBuffer segment, int offset, String value, int maxBytes) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException(
+                    "value exceeds %s bytes: %s".formatted(maxBytes, value));
+        }
+        segment.putShort(offset, (short) bytes.length);
+        segment.put(offset + 2, bytes);
+    }
+
+    private static long emailHash(String email) {
+        long h = email.hashCode() * 0x9E3779B97F4A7C15L;
+        return h == 0 ? 1 : h;
+    }
+
+    private static int slot(long hash, int mask) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+    /**
+     * Open addressing tables with linear probing. Removals leave tombstones so probe chains stay
+     * intact; once live entries and tombstones together pass three quarters of the table it is
+     * rebuilt without them, so absent keys always reach an empty slot.
+     */
+    private static final class IdIndex {
+
+        private static final long EMPTY = 0;
+        private static final long TOMBSTONE = -1;
+        private static final int ENTRY_SIZE = 16;
+
+        private final int capacity;
+        private final int mask;
+        private ByteBuffer slots;
+        private int size;
+        private int tombstones;
+
+        private IdIndex(int capacity) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.slots = ByteBuffer.allocateDirect(capacity * ENTRY_SIZE);
+        }
+
+        private int get(long id) {
+            int slot = slot(id, mask);
+            for (int probes = 0; probes < capacity; probes++, slot = (slot + 1) & mask) {
+                long key = slots.getLong(slot * ENTRY_SIZE);
+                if (key == EMPTY) {
+                    return -1;
+                }
+                if (key == id) {
+                    return slots.getInt(slot * ENTRY_SIZE + 8);
+                }
+            }
+            return -1;
+        }
+
+        private void put(long id, int record) {
+            int free = -1;
+            int empty = -1;
+            int slot = slot(id, mask);
+            for (int probes = 0; probes < capacity; probes++, slot = (slot + 1) & mask) {
+                long key = slots.getLong(slot * ENTRY_SIZE);
+                if (key == id) {
+                    slots.putInt(slot * ENTRY_SIZE + 8, record);
+                    return;
+                }
+                if (key == TOMBSTONE && free < 0) {
+                    free = slot;
+                }
+                if (key == EMPTY) {
+                    empty = slot;
+                    break;
+                }
+            }
+            int target = free >= 0 ? free : empty;
+            if (target < 0) {
+                throw new IllegalStateException("customer id index is full");
+            }
+            if (target == free) {
+                tombstones--;
+            }
+            slots.putInt(target * ENTRY_SIZE + 8, record);
+            slots.putLong(target * ENTRY_SIZE, id);
+            size++;
+            rebuildIfCrowded();
+        }
+
+        private void remove(long id) {
+            int slot = slot(id, mask);
+            for (int probes = 0; probes < capacity; probes++, slot = (slot + 1) & mask) {
+                long key = slots.getLong(slot * ENTRY_SIZE);
+                if (key == EMPTY) {
+                    return;
+                }
+                if (key == id) {
+                    slots.putLong(slot * ENTRY_SIZE, TOMBSTONE);
+                    size--;
+                    tombstones++;
+                    rebuildIfCrowded();
+                    return;
+                }
+            }
+        }
+
+        private void rebuildIfCrowded() {
+            if (tombstones == 0 || size + tombstones <= capacity / 4 * 3) {
+                return;
+            }
+            ByteBuffer old = slots;
+            slots = ByteBuffer.allocateDirect(capacity * ENTRY_SIZE);
+            size = 0;
+            tombstones = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                long key = old.getLong(slot * ENTRY_SIZE);
+                if (key != EMPTY && key != TOMBSTONE) {
+                    put(key, old.getInt(slot * ENTRY_SIZE + 8));
+                }
+            }
+        }
+    }
+
+    private static final class EmailIndex {
+
+        private static final int EMPTY = 0;
+        private static final int FULL = 1;
+        private static final int TOMBSTONE = 2;
+        private static final int ENTRY_SIZE = 16;
+
+        private final int capacity;
+        private final int mask;
+        private ByteBuffer slots;
+        private int size;
+        private int tombstones;
+
+        private EmailIndex(int capacity) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.slots = ByteBuffer.allocateDirect(capacity * ENTRY_SIZE);
+        }
+
+        private int find(long hash, IntPredicate matches) {
+            int slot = slot(hash, mask);
+            for (int probes = 0; probes < capacity; probes++, slot = (slot + 1) & mask) {
+                int base = slot * ENTRY_SIZE;
+                int state = slots.getInt(base);
+                if (state == EMPTY) {
+                    return -1;
+                }
+                if (state == FULL && slots.getLong(base + 8) == hash) {
+                    int record = slots.getInt(base + 4);
+                    if (matches.test(record)) {
+                        return record;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        // callers check for an existing entry with find first, so any free slot will do
+        private void put(long hash, int record) {
+            int slot = slot(hash, mask);
+            for (int probes = 0; probes < capacity; probes++, slot = (slot + 1) & mask) {
+                int base = slot * ENTRY_SIZE;
+                int state = slots.getInt(base);
+                if (state != FULL) {
+                    if (state == TOMBSTONE) {
+                        tombstones--;
+                    }
+                    slots.putLong(base + 8, hash);
+                    slots.putInt(base + 4, record);
+                    slots.putInt(base, FULL);
+                    size++;
+                    rebuildIfCrowded();
+                    return;
+                }
+            }
+            throw new IllegalStateException("customer email index is full");
+        }
+
+        private void remove(long hash, int record) {
+            int slot = slot(hash, mask);
+            for (int probes = 0; probes < capacity; probes++, slot = (slot + 1) & mask) {
+                int base = slot * ENTRY_SIZE;
+                int state = slots.getInt(base);
+                if (state == EMPTY) {
+                    return;
+                }
+                if (state == FULL && slots.getLong(base + 8) == hash && slots.getInt(base + 4) == record) {
+                    slots.putInt(base, TOMBSTONE);
+                    size--;
+                    tombstones++;
+                    rebuildIfCrowded();
+                    return;
+                }
+            }
+        }
+
+        private void rebuildIfCrowded() {
+            if (tombstones == 0 || size + tombstones <= capacity / 4 * 3) {
+                return;
+            }
+            ByteBuffer old = slots;
+            slots = ByteBuffer.allocateDirect(capacity * ENTRY_SIZE);
+            size = 0;
+            tombstones = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                int base = slot * ENTRY_SIZE;
+                if (old.getInt(base) == FULL) {
+                    put(old.getLong(base + 8), old.getInt(base + 4));
+                }
+            }
+        }
+    }
+}
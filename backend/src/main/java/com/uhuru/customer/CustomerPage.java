@@ -0,0 +1,10 @@
+package com.uhuru.customer;
+
+import java.util.List;
+
+public record CustomerPage<T>(
+        List<T> customers,
+        String nextCursor,
+        Long approximateTotal
+) {
+}
@@ -0,0 +1,33 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+@JsonSerialize(using = CustomerProjectionSerializer.class)
+public record CustomerProjection(
+        CustomerFieldSet fields,
+        Long id,
+        String name,
+        String email,
+        Gender gender,
+        Integer age
+) {
+
+    /**
+     * Carries the age for seek pagination without adding it to the serialized fields.
+     */
+    public CustomerProjection withAge(Integer age) {
+        return new CustomerProjection(fields, id, name, email, gender, age);
+    }
+
+    public static CustomerProjection of(CustomerFieldSet fields, Customer customer) {
+        return new CustomerProjection(
+                fields,
+                customer.getId(),
+                fields.contains(CustomerField.NAME) ? customer.getName() : null,
+                fields.contains(CustomerField.EMAIL) || fields.contains(CustomerField.USERNAME)
+                        ? customer.getEmail() : null,
+                fields.contains(CustomerField.GENDER) ? customer.getGender() : null,
+                fields.contains(CustomerField.AGE) ? customer.getAge() : null
+        );
+    }
+}
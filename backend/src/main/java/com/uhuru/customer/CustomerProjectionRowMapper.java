@@ -0,0 +1,39 @@
+package com.uhuru.customer;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class CustomerProjectionRowMapper implements RowMapper<CustomerProjection> {
+
+    private final CustomerFieldSet fields;
+    private final boolean name;
+    private final boolean email;
+    private final boolean gender;
+    private final boolean age;
+
+    public CustomerProjectionRowMapper(CustomerFieldSet fields) {
+        this(fields, false);
+    }
+
+    public CustomerProjectionRowMapper(CustomerFieldSet fields, boolean readAge) {
+        this.fields = fields;
+        this.name = fields.contains(CustomerField.NAME);
+        this.email = fields.contains(CustomerField.EMAIL) || fields.contains(CustomerField.USERNAME);
+        this.gender = fields.contains(CustomerField.GENDER);
+        this.age = readAge || fields.contains(CustomerField.AGE);
+    }
+
+    @Override
+    public CustomerProjection mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new CustomerProjection(
+                fields,
+                rs.getLong("id"),
+                name ? rs.getString("name") : null,
+                email ? rs.getString("email") : null,
+                gender ? Gender.valueOf(rs.getString("gender")) : null,
+                age ? rs.getInt("age") : null
+        );
+    }
+}
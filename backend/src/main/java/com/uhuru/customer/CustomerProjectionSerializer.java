@@ -0,0 +1,48 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+public class CustomerProjectionSerializer extends StdSerializer<CustomerProjection> {
+
+    static final String ROLE = "ROLE_USER";
+
+    public CustomerProjectionSerializer() {
+        super(CustomerProjection.class);
+    }
+
+    @Override
+    public void serialize(CustomerProjection projection,
+                          JsonGenerator generator,
+                          SerializerProvider provider) throws IOException {
+        CustomerFieldSet fields = projection.fields();
+        generator.writeStartObject();
+        if (fields.contains(CustomerField.ID)) {
+            generator.writeNumberField(CustomerField.ID.jsonName(), projection.id().longValue());
+        }
+        if (fields.contains(CustomerField.NAME)) {
+            generator.writeStringField(CustomerField.NAME.jsonName(), projection.name());
+        }
+        if (fields.contains(CustomerField.EMAIL)) {
+            generator.writeStringField(CustomerField.EMAIL.jsonName(), projection.email());
+        }
+        if (fields.contains(CustomerField.GENDER)) {
+            generator.writeStringField(CustomerField.GENDER.jsonName(), projection.gender().name());
+        }
+        if (fields.contains(CustomerField.AGE)) {
+            generator.writeNumberField(CustomerField.AGE.jsonName(), projection.age());
+        }
+        if (fields.contains(CustomerField.ROLES)) {
+            generator.writeArrayFieldStart(CustomerField.ROLES.jsonName());
+            generator.writeString(ROLE);
+            generator.writeEndArray();
+        }
+        if (fields.contains(CustomerField.USERNAME)) {
+            generator.writeStringField(CustomerField.USERNAME.jsonName(), projection.email());
+        }
+        generator.writeEndObject();
+    }
+}
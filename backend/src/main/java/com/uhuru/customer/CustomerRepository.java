@@ -1,11 +1,45 @@
 package com.uhuru.customer;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface CustomerRepository extends JpaRepository<Customer, Integer> {
+public interface CustomerRepository extends JpaRepository<Customer, Long> {
     boolean existsCustomerByEmail(String email);
-    boolean existsCustomerById(Integer id);
+    boolean existsCustomerById(Long id);
     Optional<Customer> findCustomerByEmail(String email);
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<Customer> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrderByIdAsc(
+            String name, String email, Pageable pageable);
+
+    // keyset pages in (age, id) order; the age >= bound lets the (age, id) index seek to the position
+    @Query("""
+            SELECT c FROM Customer c
+            WHERE c.age BETWEEN :minAge AND :maxAge
+              AND c.age >= :afterAge AND (c.age > :afterAge OR c.id > :afterId)
+            ORDER BY c.age, c.id
+            """)
+    List<Customer> findByAgeBetweenAfter(@Param("minAge") int minAge,
+                                         @Param("maxAge") int maxAge,
+                                         @Param("afterAge") int afterAge,
+                                         @Param("afterId") long afterId,
+                                         Pageable pageable);
+
+    @Query("""
+            SELECT c FROM Customer c
+            WHERE c.gender = :gender
+              AND c.age BETWEEN :minAge AND :maxAge
+              AND c.age >= :afterAge AND (c.age > :afterAge OR c.id > :afterId)
+            ORDER BY c.age, c.id
+            """)
+    List<Customer> findByGenderAndAgeBetweenAfter(@Param("gender") Gender gender,
+                                                  @Param("minAge") int minAge,
+                                                  @Param("maxAge") int maxAge,
+                                                  @Param("afterAge") int afterAge,
+                                                  @Param("afterId") long afterId,
+                                                  Pageable pageable);
 }
@@ -0,0 +1,54 @@
+package com.uhuru.customer;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+final class CustomerSearch {
+
+    static final int MIN_QUERY_LENGTH = 3;
+
+    private CustomerSearch() {
+    }
+
+    static String containsPattern(String query) {
+        return "%" + escapeLike(query) + "%";
+    }
+
+    static String prefixPattern(String query) {
+        return escapeLike(query) + "%";
+    }
+
+    /**
+     * Ranks the same way as the JDBC query, minus trigram similarity: prefix matches first,
+     * then substring matches, each in id order.
+     */
+    static List<CustomerProjection> scan(Stream<Customer> customers, CustomerFieldSet fields,
+                                         String query, int limit) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        return customers
+                .filter(customer -> matches(customer, needle, false))
+                .sorted(Comparator
+                        .comparing((Customer customer) -> !matches(customer, needle, true))
+                        .thenComparing(Customer::getId))
+                .limit(limit)
+                .map(customer -> CustomerProjection.of(fields, customer))
+                .toList();
+    }
+
+    private static boolean matches(Customer customer, String needle, boolean prefix) {
+        return matches(customer.getName(), needle, prefix) || matches(customer.getEmail(), needle, prefix);
+    }
+
+    private static boolean matches(String value, String needle, boolean prefix) {
+        String haystack = value.toLowerCase(Locale.ROOT);
+        return prefix ? haystack.startsWith(needle) : haystack.contains(needle);
+    }
+
+    private static String escapeLike(String query) {
+        return query.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
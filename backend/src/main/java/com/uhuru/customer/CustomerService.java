@@ -3,24 +3,44 @@ package com.uhuru.customer;
 import com.uhuru.exception.DuplicateResourceException;
 import com.uhuru.exception.RequestValidationException;
 import com.uhuru.exception.ResourceNotFoundException;
+import com.uhuru.jwt.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class CustomerService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
     private final CustomerDao customerDao;
     private final CustomerDTOMapper customerDTOMapper;
     private final PasswordEncoder passwordEncoder;
+    private final CustomerStatsAggregate customerStatsAggregate;
+    private final TokenRevocationService tokenRevocationService;
 
-    public CustomerService(@Qualifier("jdbc") CustomerDao customerDao, CustomerDTOMapper customerDTOMapper, PasswordEncoder passwordEncoder) {
+    public CustomerService(@Qualifier("cached") CustomerDao customerDao,
+                           CustomerDTOMapper customerDTOMapper,
+                           @Qualifier("boundedPasswordEncoder") PasswordEncoder passwordEncoder,
+                           CustomerStatsAggregate customerStatsAggregate,
+                           TokenRevocationService tokenRevocationService) {
         this.customerDao = customerDao;
         this.customerDTOMapper = customerDTOMapper;
         this.passwordEncoder = passwordEncoder;
+        this.customerStatsAggregate = customerStatsAggregate;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public List<CustomerDTO> getAllCustomers(){
@@ -30,8 +50,73 @@ public class CustomerService {
                 .collect(Collectors.toList());
     }
 
+    public CustomerPage<CustomerDTO> getCustomers(String cursor, int size, boolean includeTotal){
+        return page(
+                size,
+                includeTotal,
+                CustomerCursor.decode(cursor),
+                (afterId, limit) -> customerDao.selectCustomersAfter(afterId, limit)
+                        .stream()
+                        .map(customerDTOMapper)
+                        .collect(Collectors.toList()),
+                last -> CustomerCursor.encode(last.id())
+        );
+    }
+
+    public CustomerPage<CustomerProjection> getCustomers(String cursor, int size, boolean includeTotal,
+                                                         CustomerFieldSet fields){
+        return page(
+                size,
+                includeTotal,
+                CustomerCursor.decode(cursor),
+                (afterId, limit) -> customerDao.selectCustomerProjectionsAfter(fields, afterId, limit),
+                last -> CustomerCursor.encode(last.id())
+        );
+    }
+
+    public CustomerPage<CustomerProjection> getCustomers(String cursor, int size, boolean includeTotal,
+                                                         CustomerFieldSet fields, CustomerFilter filter){
+
+        if(filter.isEmpty()){
+            return getCustomers(cursor, size, includeTotal, fields);
+        }
+
+        // the table-wide estimate says nothing about a filtered listing, so no total is returned
+        return page(
+                size,
+                false,
+                CustomerCursor.decodePosition(cursor),
+                (after, limit) -> customerDao.selectCustomerProjectionsMatching(fields, filter, after, limit),
+                last -> CustomerCursor.encode(new CustomerCursor.Position(last.age(), last.id()))
+        );
+    }
+
+    private <K, T> CustomerPage<T> page(int size, boolean includeTotal, K after,
+                                        BiFunction<K, Integer, List<T>> selectAfter,
+                                        Function<T, String> cursorOf){
+
+        if(size < 1 || size > MAX_PAGE_SIZE){
+            throw new RequestValidationException(
+                    "page size must be between 1 and %s".formatted(MAX_PAGE_SIZE)
+            );
+        }
+
+        List<T> customers = selectAfter.apply(after, size + 1);
+
+        String nextCursor = null;
+        if(customers.size() > size){
+            customers = customers.subList(0, size);
+            nextCursor = cursorOf.apply(customers.get(size - 1));
+        }
 
-    public CustomerDTO getCustomer(Integer id){
+        return new CustomerPage<>(
+                customers,
+                nextCursor,
+                includeTotal ? customerDao.approximateCustomerCount() : null
+        );
+    }
+
+    public CustomerDTO getCustomer(Long id){
         return customerDao.selectCustomerById(id)
                 .map(customerDTOMapper)
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -39,12 +124,93 @@ public class CustomerService {
                 ));
     }
 
-    public void addCustomer(CustomerRegistrationRequest request){
+    public CustomerProjection getCustomer(Long id, CustomerFieldSet fields){
+        return customerDao.selectCustomerProjectionById(fields, id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "customer with id [%s] not found".formatted(id)
+                ));
+    }
+
+    public CustomerLookup<CustomerDTO> getCustomersByIds(List<Long> ids){
+        return lookup(
+                ids,
+                requested -> customerDao.selectCustomersByIds(requested)
+                        .stream()
+                        .map(customerDTOMapper)
+                        .collect(Collectors.toList()),
+                CustomerDTO::id
+        );
+    }
 
-        if(customerDao.existPersonWithEmail(request.email())){
-            throw new DuplicateResourceException("email already taken");
+    public CustomerLookup<CustomerProjection> getCustomersByIds(List<Long> ids, CustomerFieldSet fields){
+        return lookup(
+                ids,
+                requested -> customerDao.selectCustomerProjectionsByIds(fields, requested),
+                CustomerProjection::id
+        );
+    }
+
+    private <T> CustomerLookup<T> lookup(List<Long> ids,
+                                         Function<Set<Long>, List<T>> selectByIds,
+                                         Function<T, Long> idOf){
+
+        Set<Long> requested = ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        if(requested.isEmpty() || requested.size() > MAX_PAGE_SIZE){
+            throw new RequestValidationException(
+                    "between 1 and %s ids must be requested".formatted(MAX_PAGE_SIZE)
+            );
         }
 
+        Map<Long, T> found = selectByIds.apply(requested)
+                .stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+
+        List<T> customers = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for(Long id : requested){
+            T customer = found.get(id);
+            if(customer == null){
+                missingIds.add(id);
+            } else {
+                customers.add(customer);
+            }
+        }
+
+        return new CustomerLookup<>(customers, missingIds);
+    }
+
+    public List<CustomerProjection> searchCustomers(String query, int limit, CustomerFieldSet fields){
+
+        String trimmed = query == null ? "" : query.trim();
+        if(trimmed.length() < CustomerSearch.MIN_QUERY_LENGTH){
+            throw new RequestValidationException(
+                    "search query must have at least %s characters".formatted(CustomerSearch.MIN_QUERY_LENGTH)
+            );
+        }
+
+        if(limit < 1 || limit > MAX_PAGE_SIZE){
+            throw new RequestValidationException(
+                    "limit must be between 1 and %s".formatted(MAX_PAGE_SIZE)
+            );
+        }
+
+        return customerDao.searchCustomers(fields, trimmed, limit);
+    }
+
+    public EmailAvailability checkEmailAvailability(String email){
+
+        if(email == null || email.isBlank()){
+            throw new RequestValidationException("email is required");
+        }
+
+        return new EmailAvailability(email, !customerDao.existPersonWithEmail(email));
+    }
+
+    public Long addCustomer(CustomerRegistrationRequest request){
+
         Customer customer = new Customer(
                 request.name(),
                 request.email(),
@@ -52,47 +218,53 @@ public class CustomerService {
                 request.age(),
                 request.gender());
 
-        customerDao.insertCustomer(customer);
-
+        Long id = customerDao.insertCustomerIfAbsent(customer)
+                .orElseThrow(() -> new DuplicateResourceException("email already taken"));
 
+        return id;
     }
 
-    public void deleteCustomerById(Integer id) {
+    public void deleteCustomerById(Long id) {
 
-        if(!customerDao.existPersonWithId(id)){
-              throw new ResourceNotFoundException("customer with id [%s] not found".formatted(id));
-        }
+        Customer customer = customerDao.selectCustomerById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "customer with id [%s] not found".formatted(id)
+                ));
 
         customerDao.deleteCustomerById(id);
+        tokenRevocationService.revokeCustomer(id);
     }
 
+    public CustomerStats getCustomerStats(){
+        return customerStatsAggregate.snapshot();
+    }
 
-    public void updateCustomer(Integer customerId, CustomerUpdateRequest updateRequest){
+
+    @Transactional
+    public void updateCustomer(Long customerId, CustomerUpdateRequest updateRequest){
 
         Customer customer = customerDao.selectCustomerById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "customer with id [%s] not found".formatted(customerId)
                 ));
 
+        Customer patch = new Customer();
+        patch.setId(customerId);
+
         boolean changes = false;
 
         if(updateRequest.name() !=null && !updateRequest.name().equals(customer.getName())){
-            customer.setName(updateRequest.name());
+            patch.setName(updateRequest.name());
             changes = true;
         }
 
         if(updateRequest.age() !=null && !updateRequest.age().equals(customer.getAge())){
-            customer.setAge(updateRequest.age());
+            patch.setAge(updateRequest.age());
             changes = true;
         }
 
         if (updateRequest.email() != null && !updateRequest.email().equals(customer.getEmail())) {
-            if (customerDao.existPersonWithEmail(updateRequest.email())) {
-                throw new DuplicateResourceException(
-                        "email already taken"
-                );
-            }
-            customer.setEmail(updateRequest.email());
+            patch.setEmail(updateRequest.email());
             changes = true;
         }
 
@@ -100,9 +272,16 @@ public class CustomerService {
             throw new RequestValidationException("no data changes found");
         }
 
+        try {
+            customerDao.updateCustomer(patch);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateResourceException("email already taken");
+        }
 
-        customerDao.updateCustomer(customer);
-
+        if(patch.getEmail() != null){
+            // tokens carry the email as their subject
+            tokenRevocationService.revokeCustomer(customerId);
+        }
 
     }
 
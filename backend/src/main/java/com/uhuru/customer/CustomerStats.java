@@ -0,0 +1,10 @@
+package com.uhuru.customer;
+
+import java.util.Map;
+
+public record CustomerStats(
+        long total,
+        Map<Gender, Long> byGender,
+        Map<String, Long> ageHistogram
+) {
+}
@@ -0,0 +1,154 @@
+package com.uhuru.customer;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Customer counts per gender and age bucket, loaded with one GROUP BY at startup, kept up to
+ * date from the per-row customer change notifications and replaced by a fresh GROUP BY when a
+ * notification could not carry its rows, after the listener reconnects, and periodically to
+ * correct any remaining drift.
+ */
+@Component
+public class CustomerStatsAggregate {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerStatsAggregate.class);
+
+    static final int BUCKETS = 32;
+
+    private final CustomerJDBCDataAccessService customerDao;
+    private final int bucketWidth;
+    private final Duration reconcileInterval;
+
+    private final AtomicBoolean reconcileQueued = new AtomicBoolean();
+
+    private volatile AtomicLongArray counts = new AtomicLongArray(Gender.values().length * BUCKETS);
+    private volatile ScheduledExecutorService scheduler;
+
+    public CustomerStatsAggregate(CustomerJDBCDataAccessService customerDao,
+                                  @Value("${customer.stats.age-bucket-width:10}") int bucketWidth,
+                                  @Value("${customer.stats.reconcile-interval:5m}") Duration reconcileInterval) {
+        this.customerDao = customerDao;
+        this.bucketWidth = bucketWidth;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconcile();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-stats-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Customer stats reconciliation failed", e);
+            }
+        }, reconcileInterval.toMillis(), reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void reconcile() {
+        AtomicLongArray fresh = new AtomicLongArray(counts.length());
+        for (CustomerAgeBucket bucket : customerDao.countCustomersByGenderAndAgeBucket(bucketWidth, BUCKETS - 1)) {
+            fresh.addAndGet(index(bucket.gender(), bucket.bucket()), bucket.count());
+        }
+        counts = fresh;
+    }
+
+    /**
+     * Applies one committed row change from the customer change notifications, which every node
+     * receives, so the counts follow writes made through any node and any path.
+     */
+    public void apply(Gender gender, int age, long count) {
+        counts.addAndGet(index(gender, bucket(age)), count);
+    }
+
+    /**
+     * Reconciles on the background thread, for changes whose rows are unknown. Requests made
+     * while one is already queued share it.
+     */
+    public void reconcileSoon() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null || !reconcileQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            current.execute(() -> {
+                reconcileQueued.set(false);
+                try {
+                    reconcile();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Customer stats reconciliation failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reconcileQueued.set(false);
+        }
+    }
+
+    public CustomerStats snapshot() {
+        AtomicLongArray current = counts;
+        Map<Gender, Long> byGender = new EnumMap<>(Gender.class);
+        long[] histogram = new long[BUCKETS];
+        long total = 0;
+        for (Gender gender : Gender.values()) {
+            long genderTotal = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                long count = current.get(index(gender, bucket));
+                genderTotal += count;
+                histogram[bucket] += count;
+            }
+            byGender.put(gender, genderTotal);
+            total += genderTotal;
+        }
+
+        Map<String, Long> ageHistogram = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (histogram[bucket] != 0) {
+                ageHistogram.put(label(bucket), histogram[bucket]);
+            }
+        }
+        return new CustomerStats(total, byGender, ageHistogram);
+    }
+
+    private String label(int bucket) {
+        int from = bucket * bucketWidth;
+        return bucket == BUCKETS - 1
+                ? from + "+"
+                : from + "-" + (from + bucketWidth - 1);
+    }
+
+    private int bucket(int age) {
+        return Math.max(0, Math.min(age / bucketWidth, BUCKETS - 1));
+    }
+
+    private static int index(Gender gender, int bucket) {
+        return gender.ordinal() * BUCKETS + bucket;
+    }
+}
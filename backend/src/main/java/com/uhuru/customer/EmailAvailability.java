@@ -0,0 +1,7 @@
+package com.uhuru.customer;
+
+public record EmailAvailability(
+        String email,
+        boolean available
+) {
+}
@@ -0,0 +1,172 @@
+package com.uhuru.customer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Scalable Bloom filter of registered emails. A negative answer is definite, a positive one
+ * only means the email may exist. Until {@link #markReady()} is called every email is
+ * reported as possibly present, and again after {@link #markStale()} until a load that started
+ * after it has finished.
+ */
+@Component
+public class EmailBloomFilter {
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private final ReentrantLock growLock = new ReentrantLock();
+    // ready while the last finished load started after the last time emails went missing
+    private final AtomicLong generation = new AtomicLong(1);
+    private final AtomicLong loadedGeneration = new AtomicLong();
+
+    public EmailBloomFilter(
+            @Value("${customer.email-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${customer.email-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        // the first stage takes half the error budget so the compounded rate of all stages stays bounded
+        stages.add(new Stage(expectedInsertions, falsePositiveProbability / 2));
+    }
+
+    public void put(String email) {
+        long hash = hash(email);
+        Stage stage = stages.get(stages.size() - 1);
+        if (stage.isFull()) {
+            stage = grow(stage);
+        }
+        stage.put(hash);
+    }
+
+    public boolean mightContain(String email) {
+        if (!isReady()) {
+            return true;
+        }
+        long hash = hash(email);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The generation a load has to read before it starts streaming emails and pass to
+     * {@link #markReady(long)} once it is done.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void markReady() {
+        markReady(generation());
+    }
+
+    public void markReady(long generation) {
+        loadedGeneration.accumulateAndGet(generation, Math::max);
+    }
+
+    /**
+     * Records that emails were added without being put into the filter, so every email is
+     * possibly present again until the next load.
+     */
+    public void markStale() {
+        generation.incrementAndGet();
+    }
+
+    public boolean isReady() {
+        return loadedGeneration.get() >= generation.get();
+    }
+
+    // a lock rather than synchronized, so a virtual thread inserting a customer is not pinned
+    private Stage grow(Stage full) {
+        growLock.lock();
+        try {
+            Stage last = stages.get(stages.size() - 1);
+            if (last != full) {
+                return last;
+            }
+            Stage next = new Stage(full.capacity * 2, full.falsePositiveProbability / 2);
+            stages.add(next);
+            return next;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveProbability;
+        private final long numBits;
+        private final int numHashFunctions;
+        private final AtomicLongArray bits;
+        private final AtomicLong insertions = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveProbability) {
+            this.capacity = Math.max(capacity, 1);
+            this.falsePositiveProbability = falsePositiveProbability;
+            long words = (long) Math.ceil(
+                    -this.capacity * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)) / 64);
+            this.bits = new AtomicLongArray((int) Math.max(words, 1));
+            this.numBits = (long) bits.length() * 64;
+            this.numHashFunctions = (int) Math.max(1, Math.round((double) numBits / this.capacity * Math.log(2)));
+        }
+
+        private boolean isFull() {
+            return insertions.get() >= capacity;
+        }
+
+        private void put(long hash) {
+            long h1 = mix(hash);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < numHashFunctions; i++) {
+                long index = Math.floorMod(h1 + i * h2, numBits);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+            insertions.incrementAndGet();
+        }
+
+        private boolean mightContain(long hash) {
+            long h1 = mix(hash);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < numHashFunctions; i++) {
+                long index = Math.floorMod(h1 + i * h2, numBits);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.uhuru.customer;
+
+import com.uhuru.datasource.ReplicaRoutingDataSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class EmailBloomFilterLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmailBloomFilterLoader.class);
+
+    private final CustomerJDBCDataAccessService customerDao;
+    private final EmailBloomFilter emailBloomFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "email-filter-reloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reloadQueued = new AtomicBoolean();
+
+    public EmailBloomFilterLoader(CustomerJDBCDataAccessService customerDao,
+                                  EmailBloomFilter emailBloomFilter,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${customer.export.fetch-size:1000}") int fetchSize) {
+        this.customerDao = customerDao;
+        this.emailBloomFilter = emailBloomFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        AtomicLong count = new AtomicLong();
+        long start = System.currentTimeMillis();
+        long generation = emailBloomFilter.generation();
+
+        // a lagging replica could miss the very emails a reload is for
+        ReplicaRoutingDataSource.readFromPrimary(() -> transactionTemplate.execute(status -> {
+            customerDao.streamAllEmails(fetchSize, email -> {
+                emailBloomFilter.put(email);
+                count.incrementAndGet();
+            });
+            return null;
+        }));
+
+        emailBloomFilter.markReady(generation);
+        LOGGER.info("Email filter loaded with {} emails in {} ms",
+                count.get(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Marks the filter stale and reloads it in the background, for changes whose emails are not
+     * known individually. Reloads requested while one is waiting to start are folded into it.
+     */
+    public void reload() {
+        emailBloomFilter.markStale();
+        if (!reloadQueued.compareAndSet(false, true)) {
+            return;
+        }
+        reloader.execute(() -> {
+            reloadQueued.set(false);
+            try {
+                load();
+            } catch (RuntimeException e) {
+                // the filter stays stale and answers "possibly present" until the next reload
+                LOGGER.warn("Email filter reload failed", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        reloader.shutdownNow();
+    }
+}
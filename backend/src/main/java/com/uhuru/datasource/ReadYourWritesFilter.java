@@ -0,0 +1,74 @@
+package com.uhuru.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadYourWritesFilter.class);
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReadYourWritesTracker tracker;
+
+    public ReadYourWritesFilter(ReplicaRoutingDataSource routingDataSource,
+                                ReadYourWritesTracker tracker) {
+        this.routingDataSource = routingDataSource;
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        List<String> clients = clients(request);
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write) {
+            // the response may reach the client before we learn the commit position, so pin
+            // unconditionally first and narrow the pin down to the real position afterwards
+            tracker.pin(clients, Long.MAX_VALUE);
+        }
+
+        ReplicaRoutingDataSource.requireLsn(tracker.requiredLsn(clients));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clearRequiredLsn();
+            if (write) {
+                tracker.pin(clients, primaryLsn());
+            }
+        }
+    }
+
+    private long primaryLsn() {
+        try {
+            return routingDataSource.currentPrimaryLsn();
+        } catch (SQLException e) {
+            LOGGER.warn("Could not read the primary WAL position, pinning to the primary for the whole window", e);
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static List<String> clients(HttpServletRequest request) {
+        String address = "address:" + request.getRemoteAddr();
+        Principal principal = request.getUserPrincipal();
+        return principal == null
+                ? List.of(address)
+                : List.of(address, "principal:" + principal.getName());
+    }
+}
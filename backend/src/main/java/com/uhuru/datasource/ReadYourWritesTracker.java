@@ -0,0 +1,59 @@
+package com.uhuru.datasource;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, per client, the primary WAL position of its last write. Reads of a pinned client
+ * may only be served by replicas that replayed that position, until the pin window runs out.
+ */
+public class ReadYourWritesTracker {
+
+    private record Pin(long lsn, long expiresAtNanos) {
+    }
+
+    private final Map<String, Pin> pins = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void pin(Collection<String> clients, long lsn) {
+        Pin pin = new Pin(lsn, System.nanoTime() + windowNanos);
+        for (String client : clients) {
+            pins.put(client, pin);
+        }
+    }
+
+    /**
+     * @return the WAL position the client's reads must observe, or 0 when it is not pinned
+     */
+    public long requiredLsn(Collection<String> clients) {
+        long now = System.nanoTime();
+        long required = 0;
+        for (String client : clients) {
+            Pin pin = pins.get(client);
+            if (pin == null) {
+                continue;
+            }
+            if (now - pin.expiresAtNanos() >= 0) {
+                pins.remove(client, pin);
+                continue;
+            }
+            required = Math.max(required, pin.lsn());
+        }
+        return required;
+    }
+
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        pins.values().removeIf(pin -> now - pin.expiresAtNanos() >= 0);
+    }
+
+    int size() {
+        return pins.size();
+    }
+}
@@ -0,0 +1,147 @@
+package com.uhuru.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections of read-only transactions to a replica and everything else to the primary.
+ * A replica is only chosen once it has replayed the WAL position required by the current
+ * thread (see {@link #requireLsn(long)}), otherwise the read falls back to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+    static final long UNAVAILABLE = -1;
+
+    private static final ThreadLocal<Long> REQUIRED_LSN = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicLongArray replayedLsns;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.replayedLsns = new AtomicLongArray(replicas.size());
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+            replayedLsns.set(i, UNAVAILABLE);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public static void requireLsn(long lsn) {
+        REQUIRED_LSN.set(lsn);
+    }
+
+    public static void clearRequiredLsn() {
+        REQUIRED_LSN.remove();
+    }
+
+    /**
+     * Runs {@code read} with every read-only transaction it starts routed to the primary, for
+     * results that outlive the request, such as cache entries, and so must not come from a
+     * lagging replica. Does nothing when replicas are not configured.
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        Long previous = REQUIRED_LSN.get();
+        // no replica ever replays this far
+        REQUIRED_LSN.set(Long.MAX_VALUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                REQUIRED_LSN.remove();
+            } else {
+                REQUIRED_LSN.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        Long required = REQUIRED_LSN.get();
+        long requiredLsn = required == null ? 0 : required;
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            int replica = (start + i) % size;
+            long replayed = replayedLsns.get(replica);
+            if (replayed != UNAVAILABLE && replayed >= requiredLsn) {
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    public long currentPrimaryLsn() throws SQLException {
+        try (Connection connection = primary.getConnection()) {
+            return queryLsn(connection, "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')::bigint");
+        }
+    }
+
+    public void refreshReplayedLsns() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                replayedLsns.set(i, queryLsn(connection,
+                        "SELECT pg_wal_lsn_diff(pg_last_wal_replay_lsn(), '0/0')::bigint"));
+            } catch (SQLException e) {
+                if (replayedLsns.getAndSet(i, UNAVAILABLE) != UNAVAILABLE) {
+                    LOGGER.warn("Replica {} is unavailable, routing its reads to the primary", i, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    long replayedLsn(int replica) {
+        return replayedLsns.get(replica);
+    }
+
+    private static long queryLsn(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            // pg_last_wal_replay_lsn() is null when the server is not in recovery
+            if (!rs.next()) {
+                return UNAVAILABLE;
+            }
+            long lsn = rs.getLong(1);
+            return rs.wasNull() ? UNAVAILABLE : lsn;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.uhuru.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per customer cut-off for tokens: a token issued before the customer was deleted or changed
+ * its credentials is rejected without looking the customer up. The table is bounded; once an
+ * entry has been dropped to make room, tokens old enough to be affected by it are answered with
+ * {@link Status#UNKNOWN} and the caller asks the database for that customer.
+ */
+@Component
+public class CustomerTokenRevocations {
+
+    public enum Status {
+        REVOKED,
+        NOT_REVOKED,
+        UNKNOWN
+    }
+
+    // epoch seconds, the resolution of the iat claim; a token issued in the same second as the
+    // cut-off cannot be told apart from one issued just before it, so both are rejected
+    private final Cache<Long, Long> revokedBefore;
+    private final AtomicLong droppedRevokedBefore = new AtomicLong();
+    private final AtomicLong revokedAllBefore = new AtomicLong();
+
+    public CustomerTokenRevocations(
+            @Value("${jwt.revocations.maximum-size:100000}") long maximumSize,
+            @Value("${jwt.revocations.retention:15d}") Duration retention) {
+        // past the token lifetime every token the entry could reject has expired on its own
+        this.revokedBefore = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(retention)
+                .evictionListener((Long customerId, Long before, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE && before != null) {
+                        droppedRevokedBefore.accumulateAndGet(before, Math::max);
+                    }
+                })
+                .build();
+    }
+
+    public void revoke(Long customerId) {
+        revoke(customerId, Instant.now().truncatedTo(ChronoUnit.SECONDS).getEpochSecond());
+    }
+
+    /**
+     * Records a cut-off for the customer, also used to remember what the database answered for
+     * an {@link Status#UNKNOWN} customer; 0 means no tokens are revoked.
+     */
+    public void revoke(Long customerId, long revokedBeforeEpochSecond) {
+        revokedBefore.asMap().merge(customerId, revokedBeforeEpochSecond, Math::max);
+    }
+
+    public void revokeAll() {
+        revokedAllBefore.accumulateAndGet(
+                Instant.now().truncatedTo(ChronoUnit.SECONDS).getEpochSecond(), Math::max);
+    }
+
+    public Status status(Long customerId, Date issuedAt) {
+        if (issuedAt == null) {
+            return Status.REVOKED;
+        }
+        long issued = issuedAt.toInstant().getEpochSecond();
+        if (issued <= revokedAllBefore.get()) {
+            return Status.REVOKED;
+        }
+        Long before = revokedBefore.getIfPresent(customerId);
+        if (before != null) {
+            return issued <= before ? Status.REVOKED : Status.NOT_REVOKED;
+        }
+        return issued <= droppedRevokedBefore.get() ? Status.UNKNOWN : Status.NOT_REVOKED;
+    }
+
+    // evictions are applied lazily, tests flush them to observe a dropped entry
+    void cleanUp() {
+        revokedBefore.cleanUp();
+    }
+}
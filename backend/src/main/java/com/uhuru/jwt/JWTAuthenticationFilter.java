@@ -1,12 +1,15 @@
 package com.uhuru.jwt;
 
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,16 +18,24 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
     private final JWTUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean stateless;
 
-    public JWTAuthenticationFilter(JWTUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JWTAuthenticationFilter(JWTUtil jwtUtil,
+                                   UserDetailsService userDetailsService,
+                                   TokenRevocationService tokenRevocationService,
+                                   @Value("${jwt.stateless-authentication.enabled:true}") boolean stateless) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.stateless = stateless;
     }
 
     @Override
@@ -41,13 +52,16 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String jwt = authHeader.substring(7);
-        String subject = jwtUtil.getSubject(jwt);
+        Claims claims = jwtUtil.getClaims(jwt);
+        String subject = claims.getSubject();
 
-        if(subject != null && SecurityContextHolder.getContext().getAuthentication() == null){
-            UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
-            if(jwtUtil.isTokenValid(jwt, userDetails.getUsername())){
-                UsernamePasswordAuthenticationToken authenticationToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        if(subject != null && !tokenRevocationService.isTokenRevoked(claims)
+                && SecurityContextHolder.getContext().getAuthentication() == null){
+            UsernamePasswordAuthenticationToken authenticationToken =
+                    stateless && claims.get(JWTUtil.CUSTOMER_ID_CLAIM) != null
+                            ? authenticateFromClaims(claims)
+                            : authenticateFromUserDetails(claims);
+            if(authenticationToken != null){
                 authenticationToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
@@ -58,4 +72,26 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
 
     }
+
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(Claims claims) {
+        Long customerId = ((Number) claims.get(JWTUtil.CUSTOMER_ID_CLAIM)).longValue();
+        if(tokenRevocationService.isCustomerRevoked(customerId, claims.getIssuedAt())
+                || !jwtUtil.isTokenValid(claims, claims.getSubject())){
+            return null;
+        }
+        List<?> scopes = claims.get(JWTUtil.SCOPES_CLAIM, List.class);
+        List<SimpleGrantedAuthority> authorities = scopes == null
+                ? List.of()
+                : scopes.stream().map(scope -> new SimpleGrantedAuthority(scope.toString())).toList();
+        return new UsernamePasswordAuthenticationToken(
+                new JWTPrincipal(customerId, claims.getSubject()), null, authorities);
+    }
+
+    private UsernamePasswordAuthenticationToken authenticateFromUserDetails(Claims claims) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        if(!jwtUtil.isTokenValid(claims, userDetails.getUsername())){
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
 }
@@ -0,0 +1,17 @@
+package com.uhuru.jwt;
+
+import java.security.Principal;
+
+/**
+ * Principal rebuilt from a verified token alone, without loading the customer.
+ */
+public record JWTPrincipal(
+        Long customerId,
+        String username
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -1,47 +1,104 @@
 package com.uhuru.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class JWTUtil {
 
+    public static final String CUSTOMER_ID_CLAIM = "customerId";
+    public static final String SCOPES_CLAIM = "scopes";
+    public static final Duration TOKEN_LIFETIME = Duration.ofDays(15);
+
     private static final String SECRET_KEY = "foobar_123456789_foobar_123456789";
+    private static final Key SIGNING_KEY = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(SIGNING_KEY)
+            .build();
+
+    // verified claims by token digest, each entry living until the token itself expires
+    private final Cache<String, Claims> verifiedClaims;
+
+    public JWTUtil(@Value("${jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return 0;
+                        }
+                        return Math.max(0, ChronoUnit.NANOS.between(Instant.now(), expiration.toInstant()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     public String issueToken(String subject){
         return issueToken(subject, Map.of());
     }
 
     public String issueToken(String subject, String ...scopes){
-        return issueToken(subject, Map.of("scopes", scopes));
+        return issueToken(subject, Map.of(SCOPES_CLAIM, scopes));
     }
 
     public String issueToken(String subject, List<String> scopes) {
-        return issueToken(subject, Map.of("scopes", scopes));
+        return issueToken(subject, Map.of(SCOPES_CLAIM, scopes));
+    }
+
+    public String issueToken(String subject, Long customerId, List<String> scopes) {
+        return issueToken(subject, Map.of(SCOPES_CLAIM, scopes, CUSTOMER_ID_CLAIM, customerId));
     }
 
     public String issueToken(
             String subject,
             Map<String, Object> claims ){
+        Instant now = Instant.now();
         String token = Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuer("https://uhurusystems.com")
-                .setIssuedAt(Date.from(Instant.now()))
+                .setIssuedAt(Date.from(now))
                 .setExpiration(
-                        Date.from(Instant.now().plus(15, ChronoUnit.DAYS))
+                        Date.from(now.plus(TOKEN_LIFETIME))
                 )
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(SIGNING_KEY, SignatureAlgorithm.HS256)
                 .compact();
 
         return token;
@@ -51,26 +108,34 @@ public class JWTUtil {
         return getClaims(token).getSubject();
     }
 
-    private Claims getClaims(String token){
-        Claims claims = Jwts
-                .parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims;
-    }
-    private Key getSigningKey(){
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    /**
+     * Verified claims of the token. The signature is checked once per distinct token; later calls
+     * with the same token are served from the cache until it expires. Callers must not modify
+     * the returned claims.
+     */
+    public Claims getClaims(String token){
+        return verifiedClaims.get(digest(token), key -> parser.parseClaimsJws(token).getBody());
     }
 
     public boolean isTokenValid(String jwt, String username) {
-        String subject = getSubject(jwt);
-        return subject.equals(username) && !isTokenExpired(jwt);
+        return isTokenValid(getClaims(jwt), username);
     }
 
-    private boolean isTokenExpired(String jwt) {
+    public boolean isTokenValid(Claims claims, String username) {
+        return claims.getSubject().equals(username) && !isTokenExpired(claims);
+    }
+
+    private boolean isTokenExpired(Claims claims) {
         Date today = Date.from(Instant.now());
-        return getClaims(jwt).getExpiration().before(today);
+        return claims.getExpiration().before(today);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
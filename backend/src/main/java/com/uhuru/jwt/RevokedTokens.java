@@ -0,0 +1,132 @@
+package com.uhuru.jwt;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ids of individually revoked tokens as Bloom filters, one per window of expiry times. A
+ * negative answer is definite, a positive one only means the token may be revoked and has to
+ * be confirmed against {@code revoked_token}. A window is dropped as a whole once every token
+ * in it has expired, so memory is bounded by the logouts within one token lifetime.
+ */
+@Component
+public class RevokedTokens {
+
+    // expiry window (exp / bucket width) -> filter
+    private final ConcurrentMap<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final long bucketWidthSeconds;
+    private final long expectedPerBucket;
+    private final double falsePositiveProbability;
+
+    public RevokedTokens(
+            @Value("${jwt.revocations.bucket-width:1d}") Duration bucketWidth,
+            @Value("${jwt.revocations.expected-per-bucket:100000}") long expectedPerBucket,
+            @Value("${jwt.revocations.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.bucketWidthSeconds = Math.max(bucketWidth.toSeconds(), 1);
+        this.expectedPerBucket = expectedPerBucket;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    public void revoke(String jti, long expiresAtEpochSecond) {
+        long now = Instant.now().getEpochSecond();
+        if (expiresAtEpochSecond <= now) {
+            return;
+        }
+        buckets.computeIfAbsent(expiresAtEpochSecond / bucketWidthSeconds,
+                        window -> new Bucket(expectedPerBucket, falsePositiveProbability))
+                .put(hash(jti));
+        dropExpired(now);
+    }
+
+    public boolean mightBeRevoked(String jti, long expiresAtEpochSecond) {
+        if (jti == null) {
+            return false;
+        }
+        Bucket bucket = buckets.get(expiresAtEpochSecond / bucketWidthSeconds);
+        return bucket != null && bucket.mightContain(hash(jti));
+    }
+
+    public void dropExpired() {
+        dropExpired(Instant.now().getEpochSecond());
+    }
+
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    private void dropExpired(long now) {
+        // a window ends where the next begins; tokens expiring in it are no longer accepted
+        buckets.keySet().removeIf(window -> (window + 1) * bucketWidthSeconds <= now);
+    }
+
+    private static long hash(String jti) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : jti.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // a full bucket keeps accepting ids at a rising false positive rate, which only costs lookups
+    private static final class Bucket {
+
+        private final long numBits;
+        private final int numHashFunctions;
+        private final AtomicLongArray bits;
+
+        private Bucket(long capacity, double falsePositiveProbability) {
+            capacity = Math.max(capacity, 1);
+            long words = (long) Math.ceil(
+                    -capacity * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)) / 64);
+            this.bits = new AtomicLongArray((int) Math.max(words, 1));
+            this.numBits = (long) bits.length() * 64;
+            this.numHashFunctions = (int) Math.max(1, Math.round((double) numBits / capacity * Math.log(2)));
+        }
+
+        private void put(long hash) {
+            long h1 = mix(hash);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < numHashFunctions; i++) {
+                long index = Math.floorMod(h1 + i * h2, numBits);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        private boolean mightContain(long hash) {
+            long h1 = mix(hash);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < numHashFunctions; i++) {
+                long index = Math.floorMod(h1 + i * h2, numBits);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.uhuru.jwt;
+
+/**
+ * One row of {@code revoked_token}, as loaded at startup or received on the
+ * {@code token_revocations} channel. Times are epoch seconds.
+ */
+record TokenRevocation(String jti, Long customerId, long revokedAt, long expiresAt) {
+}
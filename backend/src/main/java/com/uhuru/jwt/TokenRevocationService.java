@@ -0,0 +1,224 @@
+package com.uhuru.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uhuru.exception.RequestValidationException;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable token revocations. Every revocation is written to {@code revoked_token} and applied
+ * to the in-memory {@link RevokedTokens} and {@link CustomerTokenRevocations}. Both are bounded,
+ * so the table stays the source of truth: a possible hit in {@link RevokedTokens} and a customer
+ * whose entry has been dropped are confirmed against it. Other nodes pick revocations up from the
+ * {@code token_revocations} notifications and from the periodic reload, which also purges rows
+ * whose tokens have expired.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    public static final String CHANNEL = "token_revocations";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RevokedTokens revokedTokens;
+    private final CustomerTokenRevocations customerTokenRevocations;
+    private final ObjectMapper objectMapper;
+    private final Duration purgeInterval;
+    // jti -> whether revoked_token has it, for ids the filter could not rule out
+    private final Cache<String, Boolean> confirmed;
+
+    private ScheduledExecutorService scheduler;
+
+    public TokenRevocationService(JdbcTemplate jdbcTemplate,
+                                  RevokedTokens revokedTokens,
+                                  CustomerTokenRevocations customerTokenRevocations,
+                                  ObjectMapper objectMapper,
+                                  @Value("${jwt.revocations.purge-interval:1h}") Duration purgeInterval,
+                                  @Value("${jwt.revocations.confirmed-cache-size:10000}") long confirmedCacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.revokedTokens = revokedTokens;
+        this.customerTokenRevocations = customerTokenRevocations;
+        this.objectMapper = objectMapper;
+        this.purgeInterval = purgeInterval;
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(confirmedCacheSize)
+                .expireAfterWrite(JWTUtil.TOKEN_LIFETIME)
+                .build();
+    }
+
+    // before the web server accepts requests, so no revoked token slips through after a restart
+    @PostConstruct
+    public void start() {
+        reload();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revoked-token-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                purge();
+                reload();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Revoked token purge failed", e);
+            }
+        }, purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void revokeToken(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            // issued before tokens carried an id, the customer cut-off is the closest we have
+            Number customerId = claims.get(JWTUtil.CUSTOMER_ID_CLAIM, Number.class);
+            if (customerId == null) {
+                throw new RequestValidationException("token carries neither an id nor a customer id");
+            }
+            revokeCustomer(customerId.longValue());
+            return;
+        }
+
+        long expiresAt = claims.getExpiration().toInstant().getEpochSecond();
+        Number customerId = claims.get(JWTUtil.CUSTOMER_ID_CLAIM, Number.class);
+        String sql = """
+                INSERT INTO revoked_token(jti, customer_id, expires_at)
+                VALUES (?, ?, ?)
+                ON CONFLICT (jti) DO NOTHING
+                """;
+        jdbcTemplate.update(sql,
+                jti,
+                customerId == null ? null : customerId.longValue(),
+                Timestamp.from(Instant.ofEpochSecond(expiresAt)));
+        revokedTokens.revoke(jti, expiresAt);
+        confirmed.put(jti, true);
+    }
+
+    public boolean isTokenRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null || claims.getExpiration() == null
+                || !revokedTokens.mightBeRevoked(jti, claims.getExpiration().toInstant().getEpochSecond())) {
+            return false;
+        }
+        Boolean revoked = confirmed.getIfPresent(jti);
+        if (revoked != null) {
+            return revoked;
+        }
+        // queried outside the cache so a virtual thread is not pinned while waiting on the database
+        revoked = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM revoked_token WHERE jti = ?)", Boolean.class, jti);
+        Boolean previous = confirmed.asMap().putIfAbsent(jti, Boolean.TRUE.equals(revoked));
+        return previous != null ? previous : Boolean.TRUE.equals(revoked);
+    }
+
+    public void revokeCustomer(Long customerId) {
+        Instant revokedAt = Instant.now();
+        String sql = """
+                INSERT INTO revoked_token(customer_id, revoked_at, expires_at)
+                VALUES (?, ?, ?)
+                """;
+        jdbcTemplate.update(sql,
+                customerId,
+                Timestamp.from(revokedAt),
+                Timestamp.from(revokedAt.plus(JWTUtil.TOKEN_LIFETIME)));
+        // iat has second precision, so the cut-off is the second containing the revocation and
+        // tokens issued within it are rejected too; the notification and reload floor the same way
+        customerTokenRevocations.revoke(customerId, revokedAt.getEpochSecond());
+    }
+
+    /**
+     * Whether tokens of the customer issued at {@code issuedAt} are revoked. Answered from memory
+     * unless the customer's cut-off was dropped to bound the table, in which case the customer's
+     * rows in {@code revoked_token} decide and the answer is cached again.
+     */
+    public boolean isCustomerRevoked(Long customerId, Date issuedAt) {
+        CustomerTokenRevocations.Status status = customerTokenRevocations.status(customerId, issuedAt);
+        if (status != CustomerTokenRevocations.Status.UNKNOWN) {
+            return status == CustomerTokenRevocations.Status.REVOKED;
+        }
+        // a deleted customer has nothing left to authenticate as, whatever the rows say
+        String sql = """
+                SELECT CASE
+                           WHEN NOT EXISTS (SELECT 1 FROM customer WHERE id = ?) THEN 9223372036854775807
+                           ELSE COALESCE((SELECT floor(extract(EPOCH FROM max(revoked_at)))::BIGINT
+                                          FROM revoked_token
+                                          WHERE customer_id = ? AND jti IS NULL AND expires_at > now()), 0)
+                       END
+                """;
+        Long revokedBefore = jdbcTemplate.queryForObject(sql, Long.class, customerId, customerId);
+        long before = revokedBefore == null ? 0 : revokedBefore;
+        // the table may drop the answer again straight away, so it is not read back
+        customerTokenRevocations.revoke(customerId, before);
+        return issuedAt.toInstant().getEpochSecond() <= before;
+    }
+
+    public void reload() {
+        String sql = """
+                SELECT jti, customer_id,
+                       floor(extract(EPOCH FROM revoked_at))::BIGINT AS revoked_at,
+                       floor(extract(EPOCH FROM expires_at))::BIGINT AS expires_at
+                FROM revoked_token
+                WHERE expires_at > now()
+                """;
+        jdbcTemplate.query(sql, rs -> {
+            long customerId = rs.getLong("customer_id");
+            boolean noCustomer = rs.wasNull();
+            apply(new TokenRevocation(
+                    rs.getString("jti"),
+                    noCustomer ? null : customerId,
+                    rs.getLong("revoked_at"),
+                    rs.getLong("expires_at")));
+        });
+    }
+
+    public int purge() {
+        int purged = jdbcTemplate.update("DELETE FROM revoked_token WHERE expires_at <= now()");
+        revokedTokens.dropExpired();
+        LOGGER.debug("Purged {} expired token revocations", purged);
+        return purged;
+    }
+
+    /**
+     * Applies a notification payload from {@link #CHANNEL}.
+     */
+    public void apply(String payload) {
+        try {
+            apply(objectMapper.readValue(payload, TokenRevocation.class));
+        } catch (IOException e) {
+            LOGGER.warn("Unreadable token revocation payload, reloading: {}", payload, e);
+            reload();
+        }
+    }
+
+    void apply(TokenRevocation revocation) {
+        if (revocation.jti() != null) {
+            revokedTokens.revoke(revocation.jti(), revocation.expiresAt());
+            confirmed.put(revocation.jti(), true);
+        } else if (revocation.customerId() != null) {
+            customerTokenRevocations.revoke(revocation.customerId(), revocation.revokedAt());
+        }
+    }
+}
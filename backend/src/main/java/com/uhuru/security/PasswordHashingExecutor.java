@@ -0,0 +1,190 @@
+package com.uhuru.security;
+
+import com.uhuru.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * CPU-sized pool for password hashing with a bounded queue. Once the queue is full further work
+ * is refused straight away, so a burst of logins or signups gets 503s instead of occupying every
+ * request thread. Pool, outcome and timing metrics are published under {@code password.hashing}.
+ */
+@Component
+public class PasswordHashingExecutor implements MeterBinder {
+
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final int queueCapacity;
+    private final Duration retryAfter;
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+
+    public record Stats(
+            int threads,
+            int active,
+            int queueDepth,
+            int queueCapacity,
+            long completed,
+            long failed,
+            long rejected
+    ) {
+    }
+
+    public PasswordHashingExecutor(@Value("${security.password-hashing.threads:0}") int threads,
+                                   @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${security.password-hashing.retry-after:1s}") Duration retryAfter) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.poolSize = poolSize;
+        this.queueCapacity = queueCapacity;
+        this.retryAfter = retryAfter;
+    }
+
+    public <T> T execute(Supplier<T> task) {
+        long submitted = System.nanoTime();
+        return await(submit(task, submitted), submitted);
+    }
+
+    /**
+     * Runs the tasks on the pool with at most one task per pool thread, and never more than the
+     * queue holds, in flight for this caller, so a large batch waits its turn instead of filling
+     * the queue. Results are in task order. A task the pool refuses fails the call with a 503.
+     */
+    public <T> List<T> executeAll(List<Supplier<T>> tasks) {
+        int window = Math.max(1, Math.min(poolSize, queueCapacity));
+        List<T> results = new ArrayList<>(tasks.size());
+        Deque<Future<T>> inFlight = new ArrayDeque<>(window);
+        Deque<Long> submittedAt = new ArrayDeque<>(window);
+        try {
+            for (Supplier<T> task : tasks) {
+                if (inFlight.size() == window) {
+                    results.add(await(inFlight.poll(), submittedAt.poll()));
+                }
+                long submitted = System.nanoTime();
+                inFlight.add(submit(task, submitted));
+                submittedAt.add(submitted);
+            }
+            while (!inFlight.isEmpty()) {
+                results.add(await(inFlight.poll(), submittedAt.poll()));
+            }
+            return results;
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private <T> Future<T> submit(Supplier<T> task, long submitted) {
+        try {
+            return executor.submit(() -> {
+                queueWaitNanos.add(System.nanoTime() - submitted);
+                started.increment();
+                return task.get();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("too many password operations in flight, retry later", retryAfter);
+        }
+    }
+
+    private <T> T await(Future<T> future, long submitted) {
+        try {
+            T result = future.get();
+            latencyNanos.add(System.nanoTime() - submitted);
+            completed.increment();
+            return result;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            latencyNanos.add(System.nanoTime() - submitted);
+            failed.increment();
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(
+                executor.getPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                completed.sum(),
+                failed.sum(),
+                rejected.sum()
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(registry);
+        outcome(registry, "completed", completed);
+        outcome(registry, "failed", failed);
+        outcome(registry, "rejected", rejected);
+        FunctionTimer.builder("password.hashing.queue.wait", this,
+                        pool -> pool.started.sum(),
+                        pool -> pool.queueWaitNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time tasks spent queued before a hashing thread picked them up")
+                .register(registry);
+        FunctionTimer.builder("password.hashing.latency", this,
+                        pool -> pool.completed.sum() + pool.failed.sum(),
+                        pool -> pool.latencyNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time from submission until the caller had the result, queueing included")
+                .register(registry);
+    }
+
+    private void outcome(MeterRegistry registry, String outcome, LongAdder count) {
+        FunctionCounter.builder("password.hashing.tasks", count, LongAdder::sum)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,21 @@
+package com.uhuru.security;
+
+/**
+ * A token bucket: up to {@code capacity} requests in a burst, refilled at {@code refillPerSecond}.
+ */
+public record RateLimit(
+        long capacity,
+        double refillPerSecond
+) {
+
+    public RateLimit {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException(
+                    "rate limit needs a capacity of at least 1 and a positive refill rate");
+        }
+    }
+
+    long emissionIntervalNanos() {
+        return (long) (1_000_000_000L / refillPerSecond);
+    }
+}
@@ -0,0 +1,116 @@
+package com.uhuru.security;
+
+import com.uhuru.exception.TooManyRequestsException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Token bucket limits per remote address and, for the expensive routes, per address and route.
+ * Runs before JWT authentication, so a client replaying tokens is limited before any signature
+ * check or revocation lookup is spent on it; {@link SubjectRateLimitFilter} adds the per subject
+ * limit once the subject is known.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final boolean enabled;
+    private final RateLimit perAddress;
+    private final RateLimit listCustomers;
+    private final RateLimit login;
+    private final RateLimit registration;
+
+    public RateLimitFilter(
+            RateLimiter rateLimiter,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.per-address.capacity:200}") long perAddressCapacity,
+            @Value("${rate-limit.per-address.refill-per-second:100}") double perAddressRefill,
+            @Value("${rate-limit.list-customers.capacity:20}") long listCustomersCapacity,
+            @Value("${rate-limit.list-customers.refill-per-second:10}") double listCustomersRefill,
+            @Value("${rate-limit.login.capacity:10}") long loginCapacity,
+            @Value("${rate-limit.login.refill-per-second:1}") double loginRefill,
+            @Value("${rate-limit.registration.capacity:5}") long registrationCapacity,
+            @Value("${rate-limit.registration.refill-per-second:0.2}") double registrationRefill) {
+        this.rateLimiter = rateLimiter;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.enabled = enabled;
+        this.perAddress = new RateLimit(perAddressCapacity, perAddressRefill);
+        this.listCustomers = new RateLimit(listCustomersCapacity, listCustomersRefill);
+        this.login = new RateLimit(loginCapacity, loginRefill);
+        this.registration = new RateLimit(registrationCapacity, registrationRefill);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String address = "address:" + request.getRemoteAddr();
+
+        long waitNanos = rateLimiter.tryAcquire(address, perAddress);
+        if (waitNanos == 0) {
+            Route route = route(request);
+            if (route != null) {
+                waitNanos = rateLimiter.tryAcquire(route.name() + "|" + address, route.limit());
+            }
+        }
+
+        if (waitNanos > 0) {
+            reject(handlerExceptionResolver, request, response, waitNanos);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    static void reject(HandlerExceptionResolver handlerExceptionResolver,
+                       HttpServletRequest request,
+                       HttpServletResponse response,
+                       long waitNanos) {
+        Duration retryAfter = Duration.ofSeconds((waitNanos + 999_999_999) / 1_000_000_000);
+        handlerExceptionResolver.resolveException(request, response, null,
+                new TooManyRequestsException("rate limit exceeded, retry in %s seconds"
+                        .formatted(retryAfter.toSeconds()), retryAfter));
+    }
+
+    private record Route(String name, RateLimit limit) {
+    }
+
+    private Route route(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) && path.equals("/api/v1/customers")) {
+            return new Route("list-customers", listCustomers);
+        }
+        if (HttpMethod.POST.matches(method) && path.equals("/api/v1/auth/login")) {
+            return new Route("login", login);
+        }
+        if (HttpMethod.POST.matches(method) && path.equals("/api/v1/customers")) {
+            return new Route("registration", registration);
+        }
+        return null;
+    }
+}
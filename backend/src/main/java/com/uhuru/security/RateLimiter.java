@@ -0,0 +1,38 @@
+package com.uhuru.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded table of token buckets by client key. Idle buckets are dropped; a bucket that has been
+ * idle that long would have refilled completely anyway.
+ */
+@Component
+public class RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimiter(@Value("${rate-limit.maximum-clients:100000}") long maximumClients,
+                       @Value("${rate-limit.idle-timeout:10m}") Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumClients)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    /**
+     * @return 0 when the request may proceed, otherwise nanoseconds until the client may retry
+     */
+    public long tryAcquire(String key, RateLimit limit) {
+        long now = System.nanoTime();
+        return buckets.get(key, k -> new TokenBucket(limit, now)).tryAcquire(now);
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -1,7 +1,9 @@
 package com.uhuru.security;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -14,10 +16,19 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class SecurityConfig {
 
     @Bean
+    @Primary
     public PasswordEncoder passwordEncoder(){
         return new BCryptPasswordEncoder();
     }
 
+    // for request threads: login and signup; the batch endpoint submits whole chunks to the same
+    // executor, only the offline COPY loader hashes on a pool of its own
+    @Bean
+    public PasswordEncoder boundedPasswordEncoder(PasswordEncoder passwordEncoder,
+                                                  PasswordHashingExecutor passwordHashingExecutor){
+        return new BoundedPasswordEncoder(passwordEncoder, passwordHashingExecutor);
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(
             AuthenticationConfiguration configuration
@@ -28,7 +39,7 @@ public class SecurityConfig {
     @Bean
     public AuthenticationProvider authenticationProvider(
             UserDetailsService userDetailsService,
-            PasswordEncoder passwordEncoder){
+            @Qualifier("boundedPasswordEncoder") PasswordEncoder passwordEncoder){
 
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
         daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
@@ -20,11 +20,15 @@ public class SecurityFilterChainConfig {
     private final AuthenticationProvider authenticationProvider;
     private final JWTAuthenticationFilter jwtAuthenticationFilter;
     private final AuthenticationEntryPoint authenticationEntryPoint;
+    private final RateLimitFilter rateLimitFilter;
+    private final SubjectRateLimitFilter subjectRateLimitFilter;
 
-    public SecurityFilterChainConfig(AuthenticationProvider authenticationProvider, JWTAuthenticationFilter jwtAuthenticationFilter, AuthenticationEntryPoint authenticationEntryPoint) {
+    public SecurityFilterChainConfig(AuthenticationProvider authenticationProvider, JWTAuthenticationFilter jwtAuthenticationFilter, AuthenticationEntryPoint authenticationEntryPoint, RateLimitFilter rateLimitFilter, SubjectRateLimitFilter subjectRateLimitFilter) {
         this.authenticationProvider = authenticationProvider;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.authenticationEntryPoint = authenticationEntryPoint;
+        this.rateLimitFilter = rateLimitFilter;
+        this.subjectRateLimitFilter = subjectRateLimitFilter;
     }
 
     @Bean
@@ -40,8 +44,13 @@ public class SecurityFilterChainConfig {
                 .permitAll()
                 .requestMatchers(
                         HttpMethod.GET,
-                        "/ping")
+                        "/ping",
+                        "/api/v1/customers/email-available",
+                        "/actuator/health")
                 .permitAll()
+                // pool and cache metrics are operational data, not for every signed-in customer
+                .requestMatchers("/actuator/**")
+                .hasRole("ADMIN")
                 .anyRequest()
                 .authenticated()
                 .and()
@@ -50,6 +59,9 @@ public class SecurityFilterChainConfig {
                 .and()
                 .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // address limits before any token is verified, the subject limit once it is known
+                .addFilterBefore(rateLimitFilter, JWTAuthenticationFilter.class)
+                .addFilterAfter(subjectRateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .exceptionHandling()
                 .authenticationEntryPoint(authenticationEntryPoint);
 
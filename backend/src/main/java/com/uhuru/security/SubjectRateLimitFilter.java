@@ -0,0 +1,71 @@
+package com.uhuru.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Token bucket limit per authenticated subject, so one account spread over many addresses is
+ * still limited. Runs after JWT authentication; the address limits run before it in
+ * {@link RateLimitFilter}.
+ */
+@Component
+public class SubjectRateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final boolean enabled;
+    private final RateLimit perSubject;
+
+    public SubjectRateLimitFilter(
+            RateLimiter rateLimiter,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.per-subject.capacity:100}") long perSubjectCapacity,
+            @Value("${rate-limit.per-subject.refill-per-second:50}") double perSubjectRefill) {
+        this.rateLimiter = rateLimiter;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.enabled = enabled;
+        this.perSubject = new RateLimit(perSubjectCapacity, perSubjectRefill);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String subject = enabled ? subject() : null;
+        if (subject != null) {
+            long waitNanos = rateLimiter.tryAcquire(subject, perSubject);
+            if (waitNanos > 0) {
+                RateLimitFilter.reject(handlerExceptionResolver, request, response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static String subject() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null
+                || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return "subject:" + authentication.getName();
+    }
+}
@@ -0,0 +1,7 @@
+CREATE UNLOGGED TABLE customer_staging (
+    name TEXT,
+    email TEXT,
+    password TEXT,
+    gender TEXT,
+    age INT
+);
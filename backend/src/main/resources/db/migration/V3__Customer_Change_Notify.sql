@@ -0,0 +1,43 @@
+CREATE FUNCTION notify_customer_change() RETURNS TRIGGER AS $$
+DECLARE
+    payload TEXT;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT json_agg(json_build_object('id', id, 'email', email))::TEXT INTO payload
+        FROM new_rows;
+    ELSIF TG_OP = 'UPDATE' THEN
+        SELECT json_agg(json_build_object('id', id, 'email', email))::TEXT INTO payload
+        FROM (SELECT id, email FROM old_rows UNION ALL SELECT id, email FROM new_rows) changed;
+    ELSE
+        SELECT json_agg(json_build_object('id', id, 'email', email))::TEXT INTO payload
+        FROM old_rows;
+    END IF;
+
+    IF payload IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    -- NOTIFY payloads are capped at 8000 bytes; large statements ask listeners to drop everything
+    IF octet_length(payload) > 7900 THEN
+        payload := '*';
+    END IF;
+
+    PERFORM pg_notify('customer_changes', payload);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_inserted
+    AFTER INSERT ON customer
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_customer_change();
+
+CREATE TRIGGER customer_updated
+    AFTER UPDATE ON customer
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_customer_change();
+
+CREATE TRIGGER customer_deleted
+    AFTER DELETE ON customer
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_customer_change();
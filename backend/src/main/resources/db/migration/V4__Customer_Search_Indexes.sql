@@ -0,0 +1,9 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- built without blocking writes to customer; IF NOT EXISTS lets a failed run be retried
+-- after dropping any index left INVALID
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_name_trgm_idx
+    ON customer USING gin (name gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_email_trgm_idx
+    ON customer USING gin (email gin_trgm_ops);
@@ -0,0 +1,6 @@
+-- filtered listings seek on (age, id) with an optional gender equality in front
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_gender_age_id_idx
+    ON customer (gender, age, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_age_id_idx
+    ON customer (age, id);
@@ -0,0 +1,2 @@
+-- hand out ids in blocks: each nextval reserves [value, value + increment - 1] for the caller
+ALTER SEQUENCE customer_id_seq INCREMENT BY ${customer_id_increment};
@@ -0,0 +1,39 @@
+-- flag changes that must invalidate the customer's tokens: deletes and email or password updates
+CREATE OR REPLACE FUNCTION notify_customer_change() RETURNS TRIGGER AS $$
+DECLARE
+    payload TEXT;
+    revokes BOOLEAN;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT json_agg(json_build_object('id', id, 'email', email))::TEXT, false INTO payload, revokes
+        FROM new_rows;
+    ELSIF TG_OP = 'UPDATE' THEN
+        SELECT json_agg(json_build_object('id', id, 'email', email, 'revoke', revoke))::TEXT, bool_or(revoke)
+        INTO payload, revokes
+        FROM (
+            SELECT o.id, o.email,
+                   o.email IS DISTINCT FROM n.email OR o.password IS DISTINCT FROM n.password AS revoke
+            FROM old_rows o
+            JOIN new_rows n ON n.id = o.id
+            UNION ALL
+            SELECT id, email, false FROM new_rows
+        ) changed;
+    ELSE
+        SELECT json_agg(json_build_object('id', id, 'email', email, 'revoke', true))::TEXT, true
+        INTO payload, revokes
+        FROM old_rows;
+    END IF;
+
+    IF payload IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    -- NOTIFY payloads are capped at 8000 bytes; large statements ask listeners to drop everything
+    IF octet_length(payload) > 7900 THEN
+        payload := CASE WHEN revokes THEN '!' ELSE '*' END;
+    END IF;
+
+    PERFORM pg_notify('customer_changes', payload);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
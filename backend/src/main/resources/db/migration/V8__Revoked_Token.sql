@@ -0,0 +1,27 @@
+-- a row revokes either one token by jti (logout) or every token of a customer issued before
+-- revoked_at (deletion, credential change); rows are purged once past expires_at
+CREATE TABLE revoked_token (
+    id BIGSERIAL PRIMARY KEY,
+    jti TEXT UNIQUE,
+    customer_id BIGINT,
+    revoked_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    expires_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT revoked_token_target CHECK (jti IS NOT NULL OR customer_id IS NOT NULL)
+);
+
+CREATE INDEX revoked_token_expires_at_idx ON revoked_token (expires_at);
+
+CREATE FUNCTION notify_token_revoked() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('token_revocations', json_build_object(
+            'jti', NEW.jti,
+            'customerId', NEW.customer_id,
+            'revokedAt', floor(extract(EPOCH FROM NEW.revoked_at))::BIGINT,
+            'expiresAt', floor(extract(EPOCH FROM NEW.expires_at))::BIGINT)::TEXT);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER revoked_token_notify
+    AFTER INSERT ON revoked_token
+    FOR EACH ROW EXECUTE FUNCTION notify_token_revoked();
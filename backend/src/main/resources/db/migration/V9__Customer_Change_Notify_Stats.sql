@@ -0,0 +1,45 @@
+-- carry each row's gender and age with a +1 or -1 count so every node can keep its stats current
+CREATE OR REPLACE FUNCTION notify_customer_change() RETURNS TRIGGER AS $$
+DECLARE
+    payload TEXT;
+    revokes BOOLEAN;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT json_agg(json_build_object(
+                   'id', id, 'email', email, 'gender', gender, 'age', age, 'count', 1))::TEXT, false
+        INTO payload, revokes
+        FROM new_rows;
+    ELSIF TG_OP = 'UPDATE' THEN
+        SELECT json_agg(json_build_object(
+                   'id', id, 'email', email, 'revoke', revoke, 'gender', gender, 'age', age, 'count', count))::TEXT,
+               bool_or(revoke)
+        INTO payload, revokes
+        FROM (
+            SELECT o.id, o.email,
+                   o.email IS DISTINCT FROM n.email OR o.password IS DISTINCT FROM n.password AS revoke,
+                   o.gender, o.age, -1 AS count
+            FROM old_rows o
+            JOIN new_rows n ON n.id = o.id
+            UNION ALL
+            SELECT id, email, false, gender, age, 1 FROM new_rows
+        ) changed;
+    ELSE
+        SELECT json_agg(json_build_object(
+                   'id', id, 'email', email, 'revoke', true, 'gender', gender, 'age', age, 'count', -1))::TEXT, true
+        INTO payload, revokes
+        FROM old_rows;
+    END IF;
+
+    IF payload IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    -- NOTIFY payloads are capped at 8000 bytes; large statements ask listeners to drop everything
+    IF octet_length(payload) > 7900 THEN
+        payload := CASE WHEN revokes THEN '!' ELSE '*' END;
+    END IF;
+
+    PERFORM pg_notify('customer_changes', payload);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -12,6 +12,7 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import javax.sql.DataSource;
+import java.util.Map;
 
 
 @Testcontainers
@@ -23,7 +24,7 @@ public abstract class AbstractTestcontainersUnitTest {
                 postgreSQLContainer.getJdbcUrl(),
                 postgreSQLContainer.getUsername(),
                 postgreSQLContainer.getPassword()
-        ).load();
+        ).placeholders(Map.of("customer_id_increment", "50")).load();
         flyway.migrate();
     }
 
@@ -0,0 +1,199 @@
+package com.uhuru;
+
+import com.uhuru.customer.Customer;
+import com.uhuru.customer.CustomerIdAllocator;
+import com.uhuru.customer.CustomerJDBCDataAccessService;
+import com.uhuru.customer.CustomerRowMapper;
+import com.uhuru.customer.EmailBloomFilter;
+import com.uhuru.customer.Gender;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application twice, with {@code spring.threads.virtual.enabled} off and on, and
+ * drives the same blocking request, a customer lookup through the JDBC DAO plus a 10 ms query,
+ * through Tomcat in each. Both runs get Tomcat's default of {@value #TOMCAT_THREADS} request
+ * threads and the same {@value #CONNECTIONS} database connections, so the property is the only
+ * difference. The virtual run also records JFR pinning events to catch monitors held across
+ * JDBC or Hikari I/O. The numbers of the last run are written to
+ * {@code target/benchmarks/virtual-threads.txt}; only runs with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class VirtualThreadConcurrencyTest extends AbstractTestcontainersUnitTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadConcurrencyTest.class);
+
+    private static final int REQUESTS = 2_000;
+    private static final int IN_FLIGHT = 400;
+    private static final int TOMCAT_THREADS = 200;
+    private static final int CONNECTIONS = 50;
+
+    private static Long customerId;
+
+    @BeforeAll
+    static void insertCustomer() {
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        customerId = new CustomerJDBCDataAccessService(
+                jdbcTemplate,
+                new CustomerRowMapper(),
+                new EmailBloomFilter(1_000, 0.01),
+                new CustomerIdAllocator(jdbcTemplate, false)
+        ).insertCustomerIfAbsent(new Customer(
+                FAKER.name().fullName(),
+                UUID.randomUUID() + "@gmail.com",
+                "password",
+                30,
+                Gender.FEMALE
+        )).orElseThrow();
+    }
+
+    @Test
+    void comparesTomcatThreadPoolWithVirtualThreadPerRequest() throws Exception {
+        // Given
+        AtomicInteger pinned = new AtomicInteger();
+
+        // When
+        double platform = measure(false);
+
+        double virtual;
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(5));
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                pinned.incrementAndGet();
+                LOGGER.warn("Pinned virtual thread: {}", event);
+            });
+            recording.startAsync();
+            virtual = measure(true);
+            recording.stop();
+        }
+
+        Path report = Path.of("target", "benchmarks", "virtual-threads.txt");
+        Files.createDirectories(report.getParent());
+        Files.writeString(report, """
+                mode,requests,tomcat_threads,connections,requests_per_second,pinned_events
+                platform,%d,%d,%d,%d,
+                virtual,%d,%d,%d,%d,%d
+                """.formatted(REQUESTS, TOMCAT_THREADS, CONNECTIONS, Math.round(platform),
+                REQUESTS, TOMCAT_THREADS, CONNECTIONS, Math.round(virtual), pinned.get()));
+
+        // Then
+        LOGGER.info("virtual threads served {}x the requests per second", "%.2f".formatted(virtual / platform));
+        assertThat(pinned).hasValue(0);
+    }
+
+    private static double measure(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (var context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(
+                Main.class, BenchmarkEndpoint.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                        "spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                        "spring.datasource.password=" + postgreSQLContainer.getPassword(),
+                        "spring.datasource.hikari.maximum-pool-size=" + CONNECTIONS,
+                        "rate-limit.enabled=false")
+                .initializers(applicationContext -> applicationContext.getBeanFactory()
+                        .registerSingleton("testConfigurationExcludeFilter", new TestConfigurationExcludeFilter()))
+                .run();
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(
+                    "http://localhost:" + context.getWebServer().getPort() + "/benchmark/customers/" + customerId))
+                    .build();
+            Semaphore inFlight = new Semaphore(IN_FLIGHT);
+
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                inFlight.acquire();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> inFlight.release()));
+            }
+            for (CompletableFuture<HttpResponse<Void>> response : responses) {
+                assertThat(response.join().statusCode()).isEqualTo(200);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double throughput = REQUESTS / seconds;
+            LOGGER.info("{}: {} requests in {} ms ({} requests/s)",
+                    mode, REQUESTS, Math.round(seconds * 1000), Math.round(throughput));
+            return throughput;
+        }
+    }
+
+    // keeps the scan of the application package from picking up the other tests' configurations
+    private static final class TestConfigurationExcludeFilter extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+        }
+    }
+
+    @TestConfiguration
+    static class BenchmarkEndpoint {
+
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        SecurityFilterChain benchmarkSecurityFilterChain(HttpSecurity http) throws Exception {
+            return http
+                    .securityMatcher("/benchmark/**")
+                    .csrf(csrf -> csrf.disable())
+                    .authorizeHttpRequests(authorize -> authorize.anyRequest().permitAll())
+                    .build();
+        }
+
+        @Bean
+        RouterFunction<ServerResponse> benchmarkRoutes(CustomerJDBCDataAccessService customerDao,
+                                                       JdbcTemplate jdbcTemplate) {
+            return RouterFunctions.route()
+                    .GET("/benchmark/customers/{id}", request -> {
+                        Long id = Long.valueOf(request.pathVariable("id"));
+                        if (customerDao.selectCustomerById(id).isEmpty()) {
+                            return ServerResponse.notFound().build();
+                        }
+                        jdbcTemplate.execute("SELECT pg_sleep(0.01)");
+                        return ServerResponse.ok().build();
+                    })
+                    .build();
+        }
+    }
+}
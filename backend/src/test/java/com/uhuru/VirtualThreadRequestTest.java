@@ -0,0 +1,53 @@
+package com.uhuru;
+
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "rate-limit.enabled=false"
+})
+class VirtualThreadRequestTest extends AbstractTestcontainersUnitTest {
+
+    private static final AtomicReference<Thread> REQUEST_THREAD = new AtomicReference<>();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void requestsRunOnVirtualThreadsWhenEnabled() {
+        // When
+        webTestClient.get()
+                .uri("/ping")
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        // Then
+        assertThat(REQUEST_THREAD.get()).isNotNull();
+        assertThat(REQUEST_THREAD.get().isVirtual()).isTrue();
+        assertThat(REQUEST_THREAD.get().getName()).startsWith("http-virtual-");
+    }
+
+    @TestConfiguration
+    static class RequestThreadRecorder {
+
+        @Bean
+        Filter requestThreadRecorder() {
+            return (request, response, chain) -> {
+                REQUEST_THREAD.set(Thread.currentThread());
+                chain.doFilter(request, response);
+            };
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.uhuru.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCustomerDaoTest {
+
+    private CachingCustomerDao underTest;
+
+    @Mock
+    private CustomerDao customerDao;
+
+    private final Customer customer = new Customer(
+            1L, "test", "test@gmail.com", "password", 21, Gender.MALE);
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CachingCustomerDao(
+                customerDao, 100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void selectCustomerByIdIsReadThrough() {
+        // Given
+        when(customerDao.selectCustomerById(1L)).thenReturn(Optional.of(customer));
+
+        // When
+        underTest.selectCustomerById(1L);
+        Optional<Customer> actual = underTest.selectCustomerById(1L);
+
+        // Then
+        assertThat(actual).hasValue(customer);
+        assertThat(underTest.existPersonWithId(1L)).isTrue();
+        verify(customerDao, times(1)).selectCustomerById(1L);
+        verify(customerDao, never()).existPersonWithId(any());
+        assertThat(underTest.stats().hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void publishesCacheMetrics() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        underTest.bindTo(registry);
+        when(customerDao.selectCustomerById(1L)).thenReturn(Optional.of(customer));
+
+        // When
+        underTest.selectCustomerById(1L);
+        underTest.selectCustomerById(1L);
+
+        // Then
+        assertThat(registry.get("cache.gets").tag("cache", "customers.by-id").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.size").tag("cache", "customers.by-id").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void returnedCustomersAreCopies() {
+        // Given
+        when(customerDao.selectUserByEmail("test@gmail.com")).thenReturn(Optional.of(customer));
+
+        // When
+        underTest.selectUserByEmail("test@gmail.com").orElseThrow().setName("changed");
+
+        // Then
+        assertThat(underTest.selectUserByEmail("test@gmail.com"))
+                .hasValueSatisfying(c -> assertThat(c.getName()).isEqualTo("test"));
+    }
+
+    @Test
+    void missesAreCachedAsNegativeEntries() {
+        // Given
+        when(customerDao.existPersonWithEmail("new@gmail.com")).thenReturn(false);
+
+        // When
+        underTest.existPersonWithEmail("new@gmail.com");
+        boolean actual = underTest.existPersonWithEmail("new@gmail.com");
+
+        // Then
+        assertThat(actual).isFalse();
+        verify(customerDao, times(1)).existPersonWithEmail("new@gmail.com");
+    }
+
+    @Test
+    void selectCustomersByIdsOnlyLoadsUncachedIds() {
+        // Given
+        when(customerDao.selectCustomerById(1L)).thenReturn(Optional.of(customer));
+        when(customerDao.selectCustomersByIds(List.of(2L))).thenReturn(List.of());
+        underTest.selectCustomerById(1L);
+
+        // When
+        List<Customer> actual = underTest.selectCustomersByIds(List.of(1L, 2L));
+        underTest.selectCustomersByIds(List.of(1L, 2L));
+
+        // Then
+        assertThat(actual).containsExactly(customer);
+        verify(customerDao, times(1)).selectCustomersByIds(List.of(2L));
+    }
+
+    @Test
+    void insertInvalidatesNegativeEntry() {
+        // Given
+        when(customerDao.existPersonWithEmail("new@gmail.com")).thenReturn(false, true);
+        Customer created = new Customer("new", "new@gmail.com", "password", 30, Gender.FEMALE);
+        when(customerDao.insertCustomerIfAbsent(created)).thenReturn(Optional.of(2L));
+        underTest.existPersonWithEmail("new@gmail.com");
+
+        // When
+        underTest.insertCustomerIfAbsent(created);
+
+        // Then
+        assertThat(underTest.existPersonWithEmail("new@gmail.com")).isTrue();
+    }
+
+    @Test
+    void updateInvalidatesOldAndNewKeys() {
+        // Given
+        Customer updated = new Customer(1L, "test", "new@gmail.com", "password", 21, Gender.MALE);
+        when(customerDao.selectCustomerById(1L)).thenReturn(Optional.of(customer), Optional.of(updated));
+        when(customerDao.selectUserByEmail("test@gmail.com")).thenReturn(Optional.of(customer), Optional.empty());
+        underTest.selectCustomerById(1L);
+        underTest.selectUserByEmail("test@gmail.com");
+
+        Customer patch = new Customer();
+        patch.setId(1L);
+        patch.setEmail("new@gmail.com");
+
+        // When
+        underTest.updateCustomer(patch);
+
+        // Then
+        verify(customerDao).updateCustomer(patch);
+        assertThat(underTest.selectCustomerById(1L))
+                .hasValueSatisfying(c -> assertThat(c.getEmail()).isEqualTo("new@gmail.com"));
+        assertThat(underTest.selectUserByEmail("test@gmail.com")).isEmpty();
+    }
+
+    @Test
+    void deleteInvalidatesBothKeys() {
+        // Given
+        when(customerDao.selectCustomerById(1L)).thenReturn(Optional.of(customer), Optional.empty());
+        when(customerDao.selectUserByEmail("test@gmail.com")).thenReturn(Optional.of(customer), Optional.empty());
+        underTest.selectCustomerById(1L);
+        underTest.selectUserByEmail("test@gmail.com");
+
+        // When
+        underTest.deleteCustomerById(1L);
+
+        // Then
+        assertThat(underTest.selectCustomerById(1L)).isEmpty();
+        assertThat(underTest.selectUserByEmail("test@gmail.com")).isEmpty();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerDao.selectCustomerById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(customer);
+        });
+
+        // When
+        CompletableFuture<Optional<Customer>> first =
+                CompletableFuture.supplyAsync(() -> underTest.selectCustomerById(1L));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Optional<Customer>> second =
+                CompletableFuture.supplyAsync(() -> underTest.selectCustomerById(1L));
+        release.countDown();
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).hasValue(customer);
+        assertThat(second.get(5, TimeUnit.SECONDS)).hasValue(customer);
+        verify(customerDao, times(1)).selectCustomerById(1L);
+    }
+}
@@ -0,0 +1,173 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uhuru.customer.CustomerBatchResult.Status;
+import com.uhuru.exception.RequestValidationException;
+import com.uhuru.exception.ServiceUnavailableException;
+import com.uhuru.security.PasswordHashingExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBatchRegistrationServiceTest {
+
+    private CustomerBatchRegistrationService underTest;
+
+    @Mock
+    private CustomerJDBCDataAccessService customerDao;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private final PasswordHashingExecutor passwordHashingExecutor =
+            new PasswordHashingExecutor(2, 4, Duration.ofSeconds(1));
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerBatchRegistrationService(
+                customerDao, passwordEncoder, passwordHashingExecutor, new ObjectMapper(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    void registersCustomersInChunksAndReportsEachItem() throws Exception {
+        // Given
+        String body = """
+                [
+                  {"name": "a", "email": "a@gmail.com", "password": "p", "age": 20, "gender": "MALE"},
+                  {"name": "b", "email": "b@gmail.com", "password": "p", "age": 21, "gender": "FEMALE"},
+                  {"name": "c", "email": "c@gmail.com", "password": "p", "age": 22, "gender": "MALE"},
+                  {"name": "", "email": "d@gmail.com", "password": "p", "age": 23, "gender": "MALE"},
+                  {"name": "e", "email": "e@gmail.com", "password": "p", "age": 24, "gender": "OTHER"}
+                ]
+                """;
+
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        when(customerDao.insertCustomersIgnoringDuplicates(any()))
+                .thenReturn(new int[]{1, 0})
+                .thenReturn(new int[]{1});
+
+        // When
+        CustomerBatchResponse actual = underTest.registerCustomers(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertThat(actual.created()).isEqualTo(2);
+        assertThat(actual.duplicates()).isEqualTo(1);
+        assertThat(actual.invalid()).isEqualTo(2);
+        assertThat(actual.results())
+                .filteredOn(r -> r.status() == Status.DUPLICATE)
+                .extracting(CustomerBatchResult::index)
+                .containsExactly(1);
+        assertThat(actual.results())
+                .extracting(CustomerBatchResult::index)
+                .containsExactly(0, 1, 2, 3, 4);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Customer>> chunkCaptor = ArgumentCaptor.forClass(List.class);
+        verify(customerDao, times(2)).insertCustomersIgnoringDuplicates(chunkCaptor.capture());
+        assertThat(chunkCaptor.getAllValues().get(0))
+                .extracting(Customer::getPassword)
+                .containsOnly("hash");
+    }
+
+    @Test
+    void willThrowWhenBodyIsNotAnArray() {
+        // Given
+        String body = "{\"name\": \"a\"}";
+
+        // When
+        assertThatThrownBy(() -> underTest.registerCustomers(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("request body must be a JSON array");
+
+        // Then
+        verify(customerDao, never()).insertCustomersIgnoringDuplicates(any());
+    }
+
+    @Test
+    void willThrowServiceUnavailableWhenHashingPoolRefusesWork() {
+        // Given
+        String body = """
+                [{"name": "a", "email": "a@gmail.com", "password": "p", "age": 20, "gender": "MALE"}]
+                """;
+        // a shut down pool refuses every task, like one whose queue is full
+        passwordHashingExecutor.shutdown();
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.registerCustomers(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(ServiceUnavailableException.class);
+        verify(customerDao, never()).insertCustomersIgnoringDuplicates(any());
+    }
+
+    @Test
+    void reportsNonObjectItemsAsInvalidAndKeepsReading() throws Exception {
+        // Given
+        String body = """
+                [
+                  42,
+                  {"name": "a", "email": "a@gmail.com", "password": "p", "age": 20, "gender": "MALE"},
+                  [{"name": "nested"}],
+                  null,
+                  {"name": "b", "email": "b@gmail.com", "password": "p", "age": 21, "gender": "FEMALE"}
+                ]
+                """;
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        when(customerDao.insertCustomersIgnoringDuplicates(any())).thenReturn(new int[]{1, 1});
+
+        // When
+        CustomerBatchResponse actual = underTest.registerCustomers(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertThat(actual.created()).isEqualTo(2);
+        assertThat(actual.invalid()).isEqualTo(3);
+        assertThat(actual.results())
+                .extracting(CustomerBatchResult::index, CustomerBatchResult::status)
+                .containsExactly(
+                        tuple(0, Status.INVALID),
+                        tuple(1, Status.CREATED),
+                        tuple(2, Status.INVALID),
+                        tuple(3, Status.INVALID),
+                        tuple(4, Status.CREATED));
+    }
+
+    @Test
+    void willThrowWhenArrayIsTruncated() {
+        // Given
+        String body = """
+                [{"name": "a", "email": "a@gmail.com", "password": "p", "age": 20, "gender": "MALE"},
+                """;
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.registerCustomers(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(RequestValidationException.class);
+    }
+}
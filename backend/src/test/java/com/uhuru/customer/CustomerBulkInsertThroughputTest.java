@@ -0,0 +1,115 @@
+package com.uhuru.customer;
+
+import com.uhuru.AbstractTestcontainersUnitTest;
+import com.uhuru.TestConfig;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserts the same number of customers through every write path and logs the throughput of each,
+ * so the JPA bulk modes can be compared against the JDBC batch insert on the same database. The
+ * numbers of the last run are also written to {@code target/benchmarks/customer-bulk-insert.txt}.
+ * Only runs with {@code mvn -Pbenchmark test}; {@link CustomerJPABatchInsertTest} checks that
+ * batching is applied.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerBulkInsertThroughputTest extends AbstractTestcontainersUnitTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerBulkInsertThroughputTest.class);
+    private static final int ROWS = 2_000;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void comparesJpaBulkModesWithJdbcBatchInsert() throws IOException {
+        // Given
+        CustomerJPADataAccessService jpa = new CustomerJPADataAccessService(customerRepository, entityManager, 50);
+        CustomerJDBCDataAccessService jdbc = new CustomerJDBCDataAccessService(
+                getJdbcTemplate(),
+                new CustomerRowMapper(),
+                new EmailBloomFilter(ROWS * 4, 0.01),
+                new CustomerIdAllocator(getJdbcTemplate(), true)
+        );
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // When
+        long before = customerRepository.count();
+        Map<String, Double> rowsPerSecond = new LinkedHashMap<>();
+        rowsPerSecond.put("jpa save per row", measure("jpa save per row",
+                customers -> customers.forEach(jpa::insertCustomer)));
+        rowsPerSecond.put("jpa batched persist", measure("jpa batched persist",
+                customers -> transaction.executeWithoutResult(status -> jpa.insertCustomers(customers))));
+        rowsPerSecond.put("jpa stateless session", measure("jpa stateless session",
+                jpa::insertCustomersStateless));
+        rowsPerSecond.put("jdbc batch insert", measure("jdbc batch insert",
+                jdbc::insertCustomersIgnoringDuplicates));
+        write(rowsPerSecond);
+
+        // Then
+        assertThat(customerRepository.count()).isEqualTo(before + 4L * ROWS);
+    }
+
+    private static void write(Map<String, Double> rowsPerSecond) throws IOException {
+        Path report = Path.of("target", "benchmarks", "customer-bulk-insert.txt");
+        Files.createDirectories(report.getParent());
+        StringBuilder lines = new StringBuilder("mode,rows,rows_per_second\n");
+        rowsPerSecond.forEach((mode, throughput) -> lines.append(mode).append(',').append(ROWS).append(',')
+                .append(Math.round(throughput)).append('\n'));
+        Files.writeString(report, lines);
+    }
+
+    private static double measure(String mode, Consumer<List<Customer>> insert) {
+        String prefix = UUID.randomUUID().toString();
+        List<Customer> customers = IntStream.range(0, ROWS)
+                .mapToObj(i -> new Customer(
+                        FAKER.name().fullName(),
+                        prefix + "-" + i + "@gmail.com",
+                        "password",
+                        20 + i % 50,
+                        i % 2 == 0 ? Gender.MALE : Gender.FEMALE))
+                .toList();
+
+        long start = System.nanoTime();
+        insert.accept(customers);
+        long elapsedNanos = System.nanoTime() - start;
+
+        double rowsPerSecond = ROWS * 1e9 / elapsedNanos;
+        LOGGER.info("{}: {} rows in {} ms, {} rows/sec",
+                mode, ROWS, elapsedNanos / 1_000_000, String.format("%.0f", rowsPerSecond));
+        return rowsPerSecond;
+    }
+}
@@ -0,0 +1,150 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uhuru.jwt.CustomerTokenRevocations;
+import com.uhuru.jwt.CustomerTokenRevocations.Status;
+import com.uhuru.jwt.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerChangeListenerTest {
+
+    private CustomerChangeListener underTest;
+    private CachingCustomerDao cachingCustomerDao;
+    private EmailBloomFilter emailBloomFilter;
+    private CustomerTokenRevocations customerTokenRevocations;
+
+    @Mock
+    private CustomerDao customerDao;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    @Mock
+    private EmailBloomFilterLoader emailBloomFilterLoader;
+    @Mock
+    private CustomerStatsAggregate customerStatsAggregate;
+    @Mock
+    private PGNotification notification;
+
+    private final Customer customer = new Customer(
+            1L, "test", "test@gmail.com", "password", 21, Gender.MALE);
+
+    @BeforeEach
+    void setUp() {
+        cachingCustomerDao = new CachingCustomerDao(
+                customerDao, 100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        emailBloomFilter = new EmailBloomFilter(1_000, 0.01);
+        emailBloomFilter.markReady();
+        customerTokenRevocations = new CustomerTokenRevocations(100, Duration.ofDays(15));
+        underTest = new CustomerChangeListener(
+                new DataSourceProperties(), cachingCustomerDao, emailBloomFilter, emailBloomFilterLoader,
+                customerTokenRevocations,
+                tokenRevocationService, customerStatsAggregate, new ObjectMapper(), 500);
+    }
+
+    @Test
+    void applyEvictsChangedCustomers() {
+        // Given
+        when(customerDao.selectCustomerById(1L)).thenReturn(Optional.of(customer));
+        cachingCustomerDao.selectCustomerById(1L);
+        when(notification.getParameter()).thenReturn("[{\"id\":1,\"email\":\"test@gmail.com\"}]");
+
+        // When
+        underTest.apply(new PGNotification[]{notification});
+        cachingCustomerDao.selectCustomerById(1L);
+
+        // Then
+        verify(customerDao, times(2)).selectCustomerById(1L);
+        assertThat(emailBloomFilter.mightContain("test@gmail.com")).isTrue();
+    }
+
+    @Test
+    void applyEvictsEverythingWhenPayloadWasTruncated() {
+        // Given
+        when(customerDao.selectCustomerById(1L)).thenReturn(Optional.of(customer));
+        cachingCustomerDao.selectCustomerById(1L);
+        when(notification.getParameter()).thenReturn(CustomerChangeListener.EVICT_ALL);
+
+        // When
+        underTest.apply(new PGNotification[]{notification});
+
+        // Then
+        assertThat(cachingCustomerDao.stats().size()).isZero();
+        verify(emailBloomFilterLoader).reload();
+        verify(customerStatsAggregate).reconcileSoon();
+    }
+
+    @Test
+    void applyReloadsTheEmailFilterWhenRevokingEverything() {
+        // Given
+        when(notification.getParameter()).thenReturn(CustomerChangeListener.EVICT_ALL_AND_REVOKE);
+
+        // When
+        underTest.apply(new PGNotification[]{notification});
+
+        // Then
+        verify(emailBloomFilterLoader).reload();
+        verify(customerStatsAggregate).reconcileSoon();
+        assertThat(customerTokenRevocations.status(1L, Date.from(Instant.now().minusSeconds(60))))
+                .isEqualTo(Status.REVOKED);
+    }
+
+    @Test
+    void applyUpdatesStatsFromEachChangedRow() {
+        // Given
+        when(notification.getParameter()).thenReturn(
+                "[{\"id\":1,\"email\":\"test@gmail.com\",\"gender\":\"MALE\",\"age\":21,\"count\":-1},"
+                + "{\"id\":1,\"email\":\"test@gmail.com\",\"gender\":\"MALE\",\"age\":35,\"count\":1}]");
+
+        // When
+        underTest.apply(new PGNotification[]{notification});
+
+        // Then
+        verify(customerStatsAggregate).apply(Gender.MALE, 21, -1);
+        verify(customerStatsAggregate).apply(Gender.MALE, 35, 1);
+        verify(customerStatsAggregate, never()).reconcileSoon();
+    }
+
+    @Test
+    void applyRevokesTokensOfFlaggedCustomers() {
+        // Given
+        Date issuedAt = Date.from(Instant.now().minusSeconds(60));
+        when(notification.getParameter()).thenReturn(
+                "[{\"id\":1,\"email\":\"test@gmail.com\",\"revoke\":true},{\"id\":2,\"email\":\"other@gmail.com\"}]");
+
+        // When
+        underTest.apply(new PGNotification[]{notification});
+
+        // Then
+        assertThat(customerTokenRevocations.status(1L, issuedAt)).isEqualTo(Status.REVOKED);
+        assertThat(customerTokenRevocations.status(2L, issuedAt)).isEqualTo(Status.NOT_REVOKED);
+    }
+
+    @Test
+    void applyHandsTokenRevocationsToTheRevocationService() {
+        // Given
+        String payload = "{\"jti\":\"abc\",\"customerId\":1,\"revokedAt\":1,\"expiresAt\":2}";
+        when(notification.getName()).thenReturn(TokenRevocationService.CHANNEL);
+        when(notification.getParameter()).thenReturn(payload);
+
+        // When
+        underTest.apply(new PGNotification[]{notification});
+
+        // Then
+        verify(tokenRevocationService).apply(payload);
+        verifyNoInteractions(customerDao);
+    }
+}
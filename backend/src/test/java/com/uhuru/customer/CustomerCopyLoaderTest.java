@@ -0,0 +1,63 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerCopyLoaderTest {
+
+    @Test
+    void parseCsvLine() {
+        // When
+        List<String> actual = CustomerCopyLoader.parseCsvLine(
+                "\"Doe, \"\"Jon\"\"\",jon@gmail.com,secret,21,MALE");
+
+        // Then
+        assertThat(actual).containsExactly("Doe, \"Jon\"", "jon@gmail.com", "secret", "21", "MALE");
+    }
+
+    @Test
+    void parseCsvLineKeepsEmptyFields() {
+        // When
+        List<String> actual = CustomerCopyLoader.parseCsvLine("a,,c");
+
+        // Then
+        assertThat(actual).containsExactly("a", "", "c");
+    }
+
+    private final CustomerCopyLoader underTest = new CustomerCopyLoader(null, null, new ObjectMapper(), 10, 1);
+
+    @Test
+    void parseAcceptsValidRecords() {
+        // When
+        CustomerRegistrationRequest csv = underTest.parse(
+                CustomerExportFormat.CSV, "Jon,jon@gmail.com,secret,21,male", 2);
+        CustomerRegistrationRequest ndjson = underTest.parse(
+                CustomerExportFormat.NDJSON,
+                "{\"name\":\"Jon\",\"email\":\"jon@gmail.com\",\"password\":\"secret\",\"age\":21,\"gender\":\"MALE\"}",
+                1);
+
+        // Then
+        assertThat(csv).isEqualTo(new CustomerRegistrationRequest("Jon", "jon@gmail.com", "secret", 21, Gender.MALE));
+        assertThat(ndjson).isEqualTo(csv);
+    }
+
+    @Test
+    void parseRejectsRecordsABatchRegistrationWouldReject() {
+        // When
+        // Then
+        assertThat(underTest.parse(CustomerExportFormat.CSV, ",jon@gmail.com,secret,21,MALE", 2)).isNull();
+        assertThat(underTest.parse(CustomerExportFormat.CSV, "Jon, ,secret,21,MALE", 2)).isNull();
+        assertThat(underTest.parse(CustomerExportFormat.CSV, "Jon,jon@gmail.com,,21,MALE", 2)).isNull();
+        assertThat(underTest.parse(CustomerExportFormat.CSV, "Jon,jon@gmail.com,secret,-1,MALE", 2)).isNull();
+        assertThat(underTest.parse(CustomerExportFormat.CSV, "Jon,jon@gmail.com,secret,old,MALE", 2)).isNull();
+        assertThat(underTest.parse(CustomerExportFormat.CSV, "Jon,jon@gmail.com,secret,21,", 2)).isNull();
+        assertThat(underTest.parse(CustomerExportFormat.CSV, "Jon,jon@gmail.com,secret,21,OTHER", 2)).isNull();
+        assertThat(underTest.parse(CustomerExportFormat.CSV, "Jon,jon@gmail.com,secret", 2)).isNull();
+        assertThat(underTest.parse(CustomerExportFormat.NDJSON, "{\"name\":\"Jon\",\"age\":21}", 1)).isNull();
+        assertThat(underTest.parse(CustomerExportFormat.NDJSON, "{\"name\":", 1)).isNull();
+    }
+}
@@ -0,0 +1,50 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uhuru.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerExportFormatTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void csvLineEscapesSpecialCharacters() throws Exception {
+        // Given
+        CustomerDTO customer = new CustomerDTO(
+                1L, "Doe, \"Jon\"", "jon@gmail.com", Gender.MALE, 21,
+                List.of("ROLE_USER"), "jon@gmail.com");
+
+        // When
+        String actual = CustomerExportFormat.CSV.line(customer, objectMapper);
+
+        // Then
+        assertThat(actual).isEqualTo("1,\"Doe, \"\"Jon\"\"\",jon@gmail.com,MALE,21");
+    }
+
+    @Test
+    void ndjsonLineNeverContainsPassword() throws Exception {
+        // Given
+        CustomerDTO customer = new CustomerDTO(
+                1L, "Jon", "jon@gmail.com", Gender.MALE, 21,
+                List.of("ROLE_USER"), "jon@gmail.com");
+
+        // When
+        String actual = CustomerExportFormat.NDJSON.line(customer, objectMapper);
+
+        // Then
+        assertThat(actual).doesNotContain("password").doesNotContain("\n");
+    }
+
+    @Test
+    void willThrowWhenFormatIsUnsupported() {
+        assertThatThrownBy(() -> CustomerExportFormat.from("xml"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("unsupported export format [xml]");
+    }
+}
@@ -0,0 +1,47 @@
+package com.uhuru.customer;
+
+import com.uhuru.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerFieldSetTest {
+
+    @Test
+    void parseSelectsOnlyRequestedColumnsPlusId() {
+        // When
+        CustomerFieldSet actual = CustomerFieldSet.parse("name, age");
+
+        // Then
+        assertThat(actual.columns()).isEqualTo("id, name, age");
+        assertThat(actual.contains(CustomerField.NAME)).isTrue();
+        assertThat(actual.contains(CustomerField.ID)).isFalse();
+    }
+
+    @Test
+    void derivedFieldsOnlyReadTheColumnsTheyNeed() {
+        // When
+        CustomerFieldSet actual = CustomerFieldSet.parse("id,roles,username");
+
+        // Then
+        assertThat(actual.columns()).isEqualTo("id, email");
+    }
+
+    @Test
+    void blankFieldsSelectEverythingButThePassword() {
+        // When
+        CustomerFieldSet actual = CustomerFieldSet.parse(" ");
+
+        // Then
+        assertThat(actual).isEqualTo(CustomerFieldSet.ALL);
+        assertThat(actual.columns()).isEqualTo("id, name, email, gender, age");
+    }
+
+    @Test
+    void parseRejectsUnknownFields() {
+        assertThatThrownBy(() -> CustomerFieldSet.parse("id,password"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessageStartingWith("unknown field [password]");
+    }
+}
@@ -0,0 +1,40 @@
+package com.uhuru.customer;
+
+import com.uhuru.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerFilterTest {
+
+    @Test
+    void ofParsesGenderCaseInsensitively() {
+        // When
+        CustomerFilter actual = CustomerFilter.of(18, 30, "female");
+
+        // Then
+        assertThat(actual).isEqualTo(new CustomerFilter(18, 30, Gender.FEMALE));
+        assertThat(actual.matches(new Customer(1L, "a", "a@gmail.com", "password", 21, Gender.FEMALE))).isTrue();
+        assertThat(actual.matches(new Customer(2L, "b", "b@gmail.com", "password", 31, Gender.FEMALE))).isFalse();
+    }
+
+    @Test
+    void ofWithoutParametersIsEmpty() {
+        assertThat(CustomerFilter.of(null, null, null).isEmpty()).isTrue();
+    }
+
+    @Test
+    void ofRejectsInvertedAgeRange() {
+        assertThatThrownBy(() -> CustomerFilter.of(40, 30, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("minAge [40] must not be greater than maxAge [30]");
+    }
+
+    @Test
+    void ofRejectsUnknownGender() {
+        assertThatThrownBy(() -> CustomerFilter.of(null, null, "other"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessageStartingWith("unknown gender [other]");
+    }
+}
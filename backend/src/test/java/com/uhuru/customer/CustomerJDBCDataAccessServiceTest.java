@@ -4,8 +4,10 @@ import com.uhuru.AbstractTestcontainersUnitTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -13,14 +15,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
 
     private CustomerJDBCDataAccessService underTest;
+    private EmailBloomFilter emailBloomFilter;
     private final CustomerRowMapper customerRowMapper = new CustomerRowMapper();
 
 
     @BeforeEach
     void setUp() {
+        emailBloomFilter = new EmailBloomFilter(1_000, 0.01);
         underTest = new CustomerJDBCDataAccessService(
                 getJdbcTemplate(),
-                customerRowMapper
+                customerRowMapper,
+                emailBloomFilter,
+                new CustomerIdAllocator(getJdbcTemplate(), false)
         );
     }
 
@@ -46,6 +52,65 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
         assertThat(customers).isNotEmpty();
     }
 
+    @Test
+    void selectCustomersAfter() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            String firstName = FAKER.name().firstName();
+            String lastName = FAKER.name().lastName();
+            underTest.insertCustomer(new Customer(
+                    firstName + " " + lastName,
+                    firstName + "." + lastName + "-" + UUID.randomUUID() + "@gmail.com",
+                    "password", 20,
+                    Gender.MALE
+            ));
+        }
+
+        List<Customer> firstPage = underTest.selectCustomersAfter(null, 2);
+        Long lastId = firstPage.get(firstPage.size() - 1).getId();
+
+        // When
+        List<Customer> nextPage = underTest.selectCustomersAfter(lastId, 2);
+
+        // Then
+        assertThat(firstPage).hasSize(2);
+        assertThat(firstPage).extracting(Customer::getId).isSorted();
+        assertThat(nextPage).isNotEmpty();
+        assertThat(nextPage).allSatisfy(c -> assertThat(c.getId()).isGreaterThan(lastId));
+    }
+
+    @Test
+    void streamAllCustomers() {
+        // Given
+        String firstName = FAKER.name().firstName();
+        String lastName = FAKER.name().lastName();
+        String email = firstName + "." + lastName + "-" + UUID.randomUUID() + "@gmail.com";
+        underTest.insertCustomer(new Customer(
+                firstName + " " + lastName,
+                email,
+                "password", 20,
+                Gender.MALE
+        ));
+
+        List<Customer> streamed = new ArrayList<>();
+
+        // When
+        underTest.streamAllCustomers(1, streamed::add);
+
+        // Then
+        assertThat(streamed).extracting(Customer::getEmail).contains(email);
+        assertThat(streamed).extracting(Customer::getId).isSorted();
+    }
+
+    @Test
+    void approximateCustomerCount() {
+        // When
+        long actual = underTest.approximateCustomerCount();
+
+        // Then
+        assertThat(actual).isGreaterThanOrEqualTo(0);
+    }
+
     @Test
     void selectCustomerById() {
         // Given
@@ -61,7 +126,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(email))
                 .map(Customer::getId)
@@ -81,10 +146,113 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
     }
 
 
+    @Test
+    void selectCustomersByIds() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            String firstName = FAKER.name().firstName();
+            String lastName = FAKER.name().lastName();
+            Customer customer = new Customer(
+                    firstName + " " + lastName,
+                    firstName + "." + lastName + "-" + UUID.randomUUID() + "@gmail.com",
+                    "password", 20,
+                    Gender.MALE
+            );
+            ids.add(underTest.insertCustomerIfAbsent(customer).orElseThrow());
+        }
+        ids.add(-100L);
+
+        // When
+        List<Customer> actual = underTest.selectCustomersByIds(ids);
+
+        // Then
+        assertThat(actual)
+                .extracting(Customer::getId)
+                .containsExactlyInAnyOrder(ids.get(0), ids.get(1));
+    }
+
+    @Test
+    void selectCustomerProjectionByIdReadsOnlyRequestedColumns() {
+        // Given
+        String firstName = FAKER.name().firstName();
+        String lastName = FAKER.name().lastName();
+        Customer customer = new Customer(
+                firstName + " " + lastName,
+                firstName + "." + lastName + "-" + UUID.randomUUID() + "@gmail.com",
+                "password", 20,
+                Gender.MALE
+        );
+        long id = underTest.insertCustomerIfAbsent(customer).orElseThrow();
+
+        // When
+        Optional<CustomerProjection> actual =
+                underTest.selectCustomerProjectionById(CustomerFieldSet.parse("name"), id);
+
+        // Then
+        assertThat(actual).hasValueSatisfying(c -> {
+            assertThat(c.id()).isEqualTo(id);
+            assertThat(c.name()).isEqualTo(customer.getName());
+            assertThat(c.email()).isNull();
+            assertThat(c.age()).isNull();
+        });
+    }
+
+    @Test
+    void selectCustomerProjectionsMatchingSeeksByAgeAndId() {
+        // Given
+        int age = 200 + new Random().nextInt(10_000);
+        for (int i = 0; i < 3; i++) {
+            String firstName = FAKER.name().firstName();
+            String lastName = FAKER.name().lastName();
+            underTest.insertCustomer(new Customer(
+                    firstName + " " + lastName,
+                    firstName + "." + lastName + "-" + UUID.randomUUID() + "@gmail.com",
+                    "password", age + i % 2,
+                    Gender.FEMALE
+            ));
+        }
+        CustomerFilter filter = new CustomerFilter(age, age + 1, Gender.FEMALE);
+        CustomerFieldSet fields = CustomerFieldSet.parse("name");
+
+        List<CustomerProjection> firstPage = underTest.selectCustomerProjectionsMatching(fields, filter, null, 2);
+        CustomerProjection last = firstPage.get(firstPage.size() - 1);
+
+        // When
+        List<CustomerProjection> nextPage = underTest.selectCustomerProjectionsMatching(
+                fields, filter, new CustomerCursor.Position(last.age(), last.id()), 2);
+
+        // Then
+        assertThat(firstPage).extracting(CustomerProjection::age).containsExactly(age, age);
+        assertThat(nextPage).extracting(CustomerProjection::age).containsExactly(age + 1);
+        assertThat(nextPage).allSatisfy(c -> assertThat(c.email()).isNull());
+    }
+
+    @Test
+    void searchCustomersRanksPrefixMatchesFirst() {
+        // Given
+        String token = UUID.randomUUID().toString().substring(0, 8);
+        Customer substring = new Customer(
+                "x" + token, "x" + token + "@gmail.com", "password", 20, Gender.MALE);
+        Customer prefix = new Customer(
+                token + " lastname", token + "@gmail.com", "password", 20, Gender.MALE);
+        underTest.insertCustomer(substring);
+        underTest.insertCustomer(prefix);
+
+        // When
+        List<CustomerProjection> actual =
+                underTest.searchCustomers(CustomerFieldSet.parse("email"), token.toUpperCase(), 10);
+
+        // Then
+        assertThat(actual)
+                .extracting(CustomerProjection::email)
+                .containsExactly(prefix.getEmail(), substring.getEmail());
+    }
+
     @Test
     void willReturnEmptyWhenSelectCustomerByID() {
         // Given
-        int id = -100;
+        long id = -100;
 
         // When
         Optional<Customer> actual =  underTest.selectCustomerById(id);
@@ -109,7 +277,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
         underTest.insertCustomer(customer);
 
         // Then
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(customer.getEmail()))
                 .map(Customer::getId)
@@ -126,6 +294,63 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
         });
     }
 
+    @Test
+    void insertCustomerIfAbsent() {
+        // Given
+        String firstName = FAKER.name().firstName();
+        String lastName = FAKER.name().lastName();
+        String email = firstName + "." + lastName + "-" + UUID.randomUUID() + "@gmail.com";
+        Customer customer = new Customer(
+                firstName + " " + lastName,
+                email,
+                "password", 20,
+                Gender.MALE
+        );
+        Customer duplicate = new Customer(
+                firstName + " " + lastName,
+                email,
+                "password", 30,
+                Gender.MALE
+        );
+
+        // When
+        Optional<Long> inserted = underTest.insertCustomerIfAbsent(customer);
+        Optional<Long> conflicted = underTest.insertCustomerIfAbsent(duplicate);
+
+        // Then
+        assertThat(inserted).isPresent();
+        assertThat(customer.getId()).isEqualTo(inserted.get());
+        assertThat(conflicted).isEmpty();
+        assertThat(underTest.selectCustomerById(inserted.get()))
+                .hasValueSatisfying(c -> assertThat(c.getAge()).isEqualTo(20));
+    }
+
+    @Test
+    void insertCustomerUsesBlockAllocatedIdsWhenEnabled() {
+        // Given
+        CustomerIdAllocator allocator = new CustomerIdAllocator(getJdbcTemplate(), true);
+        underTest = new CustomerJDBCDataAccessService(
+                getJdbcTemplate(),
+                customerRowMapper,
+                emailBloomFilter,
+                allocator
+        );
+        String email = "block-" + UUID.randomUUID() + "@gmail.com";
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                "password", 20,
+                Gender.MALE
+        );
+
+        // When
+        long first = underTest.insertCustomerIfAbsent(customer).orElseThrow();
+        long second = allocator.nextId();
+
+        // Then
+        assertThat(second).isEqualTo(first + 1);
+    }
+
     @Test
     void existPersonWithEmail() {
         // Given
@@ -162,6 +387,30 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
 
     }
 
+    @Test
+    void existPersonWithEmailConsultsFilterOnceReady() {
+        // Given
+        String firstName = FAKER.name().firstName();
+        String lastName = FAKER.name().lastName();
+        String email = firstName + "." + lastName + "-" + UUID.randomUUID() + "@gmail.com";
+
+        emailBloomFilter.markReady();
+
+        underTest.insertCustomer(new Customer(
+                firstName + " " + lastName,
+                email,
+                "password", 20,
+                Gender.MALE
+        ));
+
+        // When
+        Boolean exist = underTest.existPersonWithEmail(email);
+
+        // Then
+        assertThat(exist).isTrue();
+        assertThat(emailBloomFilter.mightContain(email)).isTrue();
+    }
+
     @Test
     void existPersonWithId() {
         // Given
@@ -177,7 +426,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(customer.getEmail()))
                 .map(Customer::getId)
@@ -194,7 +443,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
     @Test
     void existPersonWithIdWillReturnFalseWhenIdNotPresent() {
         // Given
-        int id = -19;
+        long id = -19;
 
         // When
         Boolean exist =  underTest.existPersonWithId(id);
@@ -218,7 +467,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(customer.getEmail()))
                 .map(Customer::getId)
@@ -249,7 +498,7 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
 
         underTest.insertCustomer(customer);
 
-        int id = underTest.selectAllCustomers()
+        long id = underTest.selectAllCustomers()
                 .stream()
                 .filter(c -> c.getEmail().equals(customer.getEmail()))
                 .map(Customer::getId)
@@ -274,4 +523,41 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainersUnitTest {
         Optional<Customer> actual = underTest.selectCustomerById(id);
         assertThat(actual).isPresent().hasValue(update);
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateCustomerOnlyWritesProvidedColumns() {
+        // Given
+        String firstName = FAKER.name().firstName();
+        String lastName = FAKER.name().lastName();
+        String email = firstName + "." + lastName + "-" + UUID.randomUUID() + "@gmail.com";
+
+        Customer customer = new Customer(
+                firstName + " " + lastName,
+                email,
+                "password", 20,
+                Gender.MALE
+        );
+
+        underTest.insertCustomer(customer);
+
+        long id = underTest.selectUserByEmail(email)
+                .map(Customer::getId)
+                .orElseThrow();
+
+        // When
+        Customer patch = new Customer();
+        patch.setId(id);
+        patch.setAge(45);
+
+        underTest.updateCustomer(patch);
+
+        // Then
+        Optional<Customer> actual = underTest.selectCustomerById(id);
+        assertThat(actual).isPresent().hasValueSatisfying(c -> {
+            assertThat(c.getName()).isEqualTo(customer.getName());
+            assertThat(c.getEmail()).isEqualTo(email);
+            assertThat(c.getPassword()).isEqualTo("password");
+            assertThat(c.getAge()).isEqualTo(45);
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package com.uhuru.customer;
+
+import com.uhuru.AbstractTestcontainersUnitTest;
+import com.uhuru.TestConfig;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the JPA bulk paths really send JDBC batches, by counting the statements Hibernate
+ * prepares: one per batch rather than one per row.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TestConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerJPABatchInsertTest extends AbstractTestcontainersUnitTest {
+
+    private static final int ROWS = 200;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerJPADataAccessService underTest;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerJPADataAccessService(customerRepository, entityManager, BATCH_SIZE);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void batchedPersistPreparesOneStatementPerBatch() {
+        // Given
+        List<Customer> customers = customers();
+
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> underTest.insertCustomers(customers));
+
+        // Then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        // 4 insert batches plus a few sequence fetches, against 200 without batching
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L * ROWS / BATCH_SIZE + 2);
+    }
+
+    @Test
+    void statelessSessionPreparesOneStatementPerBatch() {
+        // Given
+        List<Customer> customers = customers();
+
+        // When
+        underTest.insertCustomersStateless(customers);
+
+        // Then
+        assertThat(customers).allSatisfy(customer -> assertThat(customer.getId()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L * ROWS / BATCH_SIZE + 2);
+    }
+
+    private static List<Customer> customers() {
+        String prefix = UUID.randomUUID().toString();
+        return IntStream.range(0, ROWS)
+                .mapToObj(i -> new Customer(
+                        FAKER.name().fullName(),
+                        prefix + "-" + i + "@gmail.com",
+                        "password",
+                        20 + i % 50,
+                        i % 2 == 0 ? Gender.MALE : Gender.FEMALE))
+                .toList();
+    }
+}
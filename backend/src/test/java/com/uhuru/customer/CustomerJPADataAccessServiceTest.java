@@ -1,12 +1,27 @@
 package com.uhuru.customer;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class CustomerJPADataAccessServiceTest {
 
@@ -15,12 +30,14 @@ class CustomerJPADataAccessServiceTest {
 
     @Mock
     private CustomerRepository customerRepository;
+    @Mock
+    private EntityManager entityManager;
 
 
     @BeforeEach
     void setUp() {
         autoCloseable = MockitoAnnotations.openMocks(this);
-        underTest = new CustomerJPADataAccessService(customerRepository);
+        underTest = new CustomerJPADataAccessService(customerRepository, entityManager, 2);
     }
 
     @AfterEach
@@ -38,10 +55,51 @@ class CustomerJPADataAccessServiceTest {
                 .findAll();
     }
 
+    @Test
+    void selectCustomersAfter() {
+        // Given
+        long afterId = 10;
+
+        // When
+        underTest.selectCustomersAfter(afterId, 20);
+
+        // Then
+        verify(customerRepository)
+                .findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, 20));
+    }
+
+    @Test
+    void selectCustomerProjectionsMatchingSeeksPastThePositionInTheDatabase() {
+        // Given
+        CustomerFilter filter = new CustomerFilter(18, null, Gender.FEMALE);
+        CustomerCursor.Position after = new CustomerCursor.Position(30, 7L);
+        when(customerRepository.findByGenderAndAgeBetweenAfter(
+                Gender.FEMALE, 18, Integer.MAX_VALUE, 30, 7L, PageRequest.of(0, 20)))
+                .thenReturn(List.of(new Customer(8L, "test", "test@gmail.com", "password", 31, Gender.FEMALE)));
+
+        // When
+        List<CustomerProjection> actual = underTest.selectCustomerProjectionsMatching(
+                CustomerFieldSet.ALL, filter, after, 20);
+
+        // Then
+        assertThat(actual).hasSize(1);
+        verify(customerRepository, never()).findAll();
+    }
+
+    @Test
+    void selectCustomerProjectionsMatchingWithoutFilterOrPosition() {
+        // When
+        underTest.selectCustomerProjectionsMatching(CustomerFieldSet.ALL, CustomerFilter.NONE, null, 20);
+
+        // Then
+        verify(customerRepository).findByAgeBetweenAfter(
+                Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE, PageRequest.of(0, 20));
+    }
+
     @Test
     void selectCustomerById() {
         // Given
-        int id = 1;
+        long id = 1;
 
         // When
         underTest.selectCustomerById(id);
@@ -55,7 +113,7 @@ class CustomerJPADataAccessServiceTest {
     void insertCustomer() {
         // Given
          Customer customer = new Customer(
-                 1,
+                 1L,
                  "test",
                  "test@gmail.com",
                  "password",
@@ -71,6 +129,90 @@ class CustomerJPADataAccessServiceTest {
                 .save(customer);
     }
 
+    @Test
+    void insertCustomersFlushesAndClearsEveryBatch() {
+        // Given
+        List<Customer> customers = IntStream.range(0, 5)
+                .mapToObj(i -> new Customer("test" + i, "test" + i + "@gmail.com", "password", 21, Gender.MALE))
+                .toList();
+
+        // When
+        underTest.insertCustomers(customers);
+
+        // Then
+        verify(entityManager, times(5)).persist(any(Customer.class));
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void insertCustomerIfAbsent() {
+        // Given
+        Customer customer = new Customer(
+                "test",
+                "test@gmail.com",
+                "password",
+                21,
+                Gender.MALE
+        );
+        Customer saved = new Customer(
+                1L,
+                "test",
+                "test@gmail.com",
+                "password",
+                21,
+                Gender.MALE
+        );
+        when(customerRepository.saveAndFlush(customer)).thenReturn(saved);
+
+        // When
+        Optional<Long> actual = underTest.insertCustomerIfAbsent(customer);
+
+        // Then
+        assertThat(actual).contains(1L);
+    }
+
+    @Test
+    void insertCustomerIfAbsentReturnsEmptyOnConflict() {
+        // Given
+        Customer customer = new Customer(
+                "test",
+                "test@gmail.com",
+                "password",
+                21,
+                Gender.MALE
+        );
+        when(customerRepository.saveAndFlush(customer))
+                .thenThrow(new DataIntegrityViolationException("duplicate key",
+                        new ConstraintViolationException("duplicate key", new SQLException(), "customer_email_unique")));
+
+        // When
+        Optional<Long> actual = underTest.insertCustomerIfAbsent(customer);
+
+        // Then
+        assertThat(actual).isEmpty();
+        verify(customerRepository, never()).existsCustomerByEmail(any());
+    }
+
+    @Test
+    void insertCustomerIfAbsentRethrowsOtherViolations() {
+        // Given
+        Customer customer = new Customer(
+                "test",
+                "test@gmail.com",
+                "password",
+                21,
+                Gender.MALE
+        );
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("check violation",
+                new ConstraintViolationException("check violation", new SQLException(), "customer_age_check"));
+        when(customerRepository.saveAndFlush(customer)).thenThrow(violation);
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.insertCustomerIfAbsent(customer)).isSameAs(violation);
+    }
+
     @Test
     void existPersonWithEmail() {
         // Given
@@ -87,7 +229,7 @@ class CustomerJPADataAccessServiceTest {
     @Test
     void existPersonWithId() {
         // Given
-        int id = 1;
+        long id = 1;
 
         // When
         underTest.existPersonWithId(id);
@@ -100,7 +242,7 @@ class CustomerJPADataAccessServiceTest {
     @Test
     void deleteCustomerById() {
         // Given
-        int id = 1;
+        long id = 1;
 
         // When
         underTest.deleteCustomerById(id);
@@ -113,8 +255,18 @@ class CustomerJPADataAccessServiceTest {
     @Test
     void updateCustomer() {
         // Given
+        Customer existing = new Customer(
+                1L,
+                "old",
+                "test@gmail.com",
+                "password",
+                21,
+                Gender.MALE
+        );
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(existing));
+
         Customer customer = new Customer();
-        customer.setId(1);
+        customer.setId(1L);
         customer.setName("test");
 
         // When
@@ -122,7 +274,9 @@ class CustomerJPADataAccessServiceTest {
 
         // Then
         verify(customerRepository)
-                .save(customer);
+                .save(existing);
+        assertThat(existing.getName()).isEqualTo("test");
+        assertThat(existing.getEmail()).isEqualTo("test@gmail.com");
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.uhuru.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerListDataAccessServiceTest {
+
+    private CustomerListDataAccessService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerListDataAccessService();
+    }
+
+    @Test
+    void insertCustomerAssignsIdAndIndexesEmail() {
+        // Given
+        Customer customer = new Customer("test", "test@gmail.com", "password", 21, Gender.MALE);
+
+        // When
+        underTest.insertCustomer(customer);
+
+        // Then
+        assertThat(customer.getId()).isNotNull();
+        assertThat(underTest.selectCustomerById(customer.getId())).hasValue(customer);
+        assertThat(underTest.selectUserByEmail("test@gmail.com")).hasValue(customer);
+        assertThat(underTest.existPersonWithEmail("test@gmail.com")).isTrue();
+    }
+
+    @Test
+    void insertCustomerWithTakenEmailThrows() {
+        // Given
+        Customer customer = new Customer("test", "alex@gmail.com", "password", 21, Gender.MALE);
+
+        // When
+        assertThatThrownBy(() -> underTest.insertCustomer(customer))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        // Then
+        assertThat(underTest.insertCustomerIfAbsent(customer)).isEmpty();
+    }
+
+    @Test
+    void updateCustomerReplacesInsteadOfAppending() {
+        // Given
+        Customer patch = new Customer();
+        patch.setId(1L);
+        patch.setEmail("alexander@gmail.com");
+        patch.setAge(30);
+
+        // When
+        underTest.updateCustomer(patch);
+
+        // Then
+        assertThat(underTest.selectAllCustomers()).hasSize(2);
+        assertThat(underTest.existPersonWithEmail("alex@gmail.com")).isFalse();
+        assertThat(underTest.selectUserByEmail("alexander@gmail.com"))
+                .hasValueSatisfying(c -> {
+                    assertThat(c.getName()).isEqualTo("Alex");
+                    assertThat(c.getAge()).isEqualTo(30);
+                });
+    }
+
+    @Test
+    void updateCustomerToTakenEmailThrows() {
+        // Given
+        Customer patch = new Customer();
+        patch.setId(1L);
+        patch.setEmail("jamila@gmail.com");
+
+        // When
+        assertThatThrownBy(() -> underTest.updateCustomer(patch))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        // Then
+        assertThat(underTest.selectCustomerById(1L))
+                .hasValueSatisfying(c -> assertThat(c.getEmail()).isEqualTo("alex@gmail.com"));
+    }
+
+    @Test
+    void deleteCustomerByIdRemovesBothIndexes() {
+        // When
+        underTest.deleteCustomerById(1L);
+
+        // Then
+        assertThat(underTest.existPersonWithId(1L)).isFalse();
+        assertThat(underTest.existPersonWithEmail("alex@gmail.com")).isFalse();
+        assertThat(underTest.selectAllCustomers()).extracting(Customer::getId).containsExactly(2L);
+    }
+
+    @Test
+    void returnedCustomersAreCopies() {
+        // Given
+        Customer customer = underTest.selectCustomerById(1L).orElseThrow();
+
+        // When
+        customer.setName("changed");
+
+        // Then
+        assertThat(underTest.selectCustomerById(1L))
+                .hasValueSatisfying(c -> assertThat(c.getName()).isEqualTo("Alex"));
+    }
+
+    @Test
+    void selectCustomersAfterPagesInIdOrder() {
+        // Given
+        IntStream.range(0, 5).forEach(i -> underTest.insertCustomer(
+                new Customer("c" + i, "c" + i + "@gmail.com", "password", 20, Gender.FEMALE)));
+
+        // When
+        List<Customer> page = underTest.selectCustomersAfter(2L, 3);
+
+        // Then
+        assertThat(page).extracting(Customer::getId).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void concurrentInsertsGetUniqueIds() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        IntStream.range(0, 1_000).forEach(i -> executor.submit(() -> underTest.insertCustomerIfAbsent(
+                new Customer("c" + i, "c" + (i % 500) + "@gmail.com", "password", 20, Gender.MALE))));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        List<Customer> customers = underTest.selectAllCustomers();
+        assertThat(customers).hasSize(502);
+        assertThat(customers).extracting(Customer::getId).doesNotHaveDuplicates();
+        assertThat(underTest.selectUserByEmail("c42@gmail.com")).map(Customer::getEmail)
+                .isEqualTo(Optional.of("c42@gmail.com"));
+    }
+
+    @Test
+    void searchCustomersRanksPrefixMatchesFirst() {
+        // Given
+        underTest.insertCustomer(new Customer("Malexa", "malexa@gmail.com", "password", 30, Gender.FEMALE));
+
+        // When
+        List<CustomerProjection> actual = underTest.searchCustomers(CustomerFieldSet.ALL, "ALEX", 10);
+
+        // Then
+        assertThat(actual)
+                .extracting(CustomerProjection::name)
+                .containsExactly("Alex", "Malexa");
+        assertThat(underTest.searchCustomers(CustomerFieldSet.ALL, "alex", 1)).hasSize(1);
+    }
+}
@@ -0,0 +1,222 @@
+package com.uhuru.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerMappedFileDataAccessServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private CustomerMappedFileDataAccessService underTest;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("customers.db");
+        underTest = new CustomerMappedFileDataAccessService(file, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    void insertAndSelectCustomer() {
+        // Given
+        Customer customer = new Customer("test", "test@gmail.com", "password", 21, Gender.FEMALE);
+
+        // When
+        underTest.insertCustomer(customer);
+
+        // Then
+        assertThat(customer.getId()).isEqualTo(1);
+        assertThat(underTest.selectCustomerById(1L)).hasValue(customer);
+        assertThat(underTest.selectUserByEmail("test@gmail.com"))
+                .hasValueSatisfying(c -> assertThat(c.getPassword()).isEqualTo("password"));
+        assertThat(underTest.existPersonWithEmail("other@gmail.com")).isFalse();
+    }
+
+    @Test
+    void insertCustomerWithTakenEmailThrows() {
+        // Given
+        underTest.insertCustomer(new Customer("test", "test@gmail.com", "password", 21, Gender.MALE));
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.insertCustomer(
+                new Customer("other", "test@gmail.com", "password", 30, Gender.MALE)))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(underTest.approximateCustomerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void restartsWarmFromTheFile() {
+        // Given
+        underTest.insertCustomer(new Customer("a", "a@gmail.com", "password", 21, Gender.MALE));
+        underTest.insertCustomer(new Customer("b", "b@gmail.com", "password", 22, Gender.FEMALE));
+        underTest.deleteCustomerById(1L);
+        underTest.close();
+
+        // When
+        underTest = new CustomerMappedFileDataAccessService(file, 1_000);
+
+        // Then
+        assertThat(underTest.existPersonWithId(1L)).isFalse();
+        assertThat(underTest.existPersonWithEmail("a@gmail.com")).isFalse();
+        assertThat(underTest.selectUserByEmail("b@gmail.com"))
+                .hasValueSatisfying(c -> assertThat(c.getId()).isEqualTo(2));
+        assertThat(underTest.approximateCustomerCount()).isEqualTo(1);
+
+        Customer next = new Customer("c", "c@gmail.com", "password", 23, Gender.MALE);
+        underTest.insertCustomer(next);
+        assertThat(next.getId()).isEqualTo(3);
+    }
+
+    @Test
+    void updateCustomerRewritesRecordAndEmailIndex() {
+        // Given
+        underTest.insertCustomer(new Customer("a", "a@gmail.com", "password", 21, Gender.MALE));
+        underTest.insertCustomer(new Customer("b", "b@gmail.com", "password", 22, Gender.MALE));
+
+        Customer patch = new Customer();
+        patch.setId(1L);
+        patch.setEmail("alex@gmail.com");
+
+        // When
+        underTest.updateCustomer(patch);
+
+        // Then
+        assertThat(underTest.existPersonWithEmail("a@gmail.com")).isFalse();
+        assertThat(underTest.selectUserByEmail("alex@gmail.com"))
+                .hasValueSatisfying(c -> {
+                    assertThat(c.getName()).isEqualTo("a");
+                    assertThat(c.getAge()).isEqualTo(21);
+                });
+
+        Customer taken = new Customer();
+        taken.setId(1L);
+        taken.setEmail("b@gmail.com");
+        assertThatThrownBy(() -> underTest.updateCustomer(taken))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void selectCustomersAfterSkipsDeletedRecords() {
+        // Given
+        IntStream.rangeClosed(1, 6).forEach(i -> underTest.insertCustomer(
+                new Customer("c" + i, "c" + i + "@gmail.com", "password", 20, Gender.MALE)));
+        underTest.deleteCustomerById(4L);
+
+        // When
+        List<Customer> page = underTest.selectCustomersAfter(2L, 3);
+
+        // Then
+        assertThat(page).extracting(Customer::getId).containsExactly(3L, 5L, 6L);
+    }
+
+    @Test
+    void rejectsValuesLongerThanTheRecordLayout() {
+        // Given
+        Customer customer = new Customer("x".repeat(500), "long@gmail.com", "password", 20, Gender.MALE);
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.insertCustomer(customer))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(underTest.existPersonWithEmail("long@gmail.com")).isFalse();
+    }
+
+    @Test
+    @Timeout(10)
+    void deleteAndUpdateChurnDoesNotExhaustTheIndexes() {
+        // Given
+        underTest.close();
+        underTest = new CustomerMappedFileDataAccessService(directory.resolve("small.db"), 8);
+
+        // When
+        for (int i = 0; i < 8; i++) {
+            Customer customer = new Customer("c" + i, "c" + i + "@gmail.com", "password", 20, Gender.MALE);
+            underTest.insertCustomer(customer);
+            // every email change leaves a tombstone behind in the email index
+            for (int j = 0; j < 100; j++) {
+                Customer patch = new Customer();
+                patch.setId(customer.getId());
+                patch.setEmail("c" + i + "-" + j + "@gmail.com");
+                underTest.updateCustomer(patch);
+            }
+            if (i < 7) {
+                underTest.deleteCustomerById(customer.getId());
+            }
+        }
+
+        // Then
+        assertThat(underTest.existPersonWithId(10_000L)).isFalse();
+        assertThat(underTest.existPersonWithEmail("absent@gmail.com")).isFalse();
+        assertThat(underTest.selectUserByEmail("c7-99@gmail.com"))
+                .hasValueSatisfying(c -> assertThat(c.getId()).isEqualTo(8));
+        assertThat(underTest.approximateCustomerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void idsBeyondTheIntRangeRoundTrip() throws Exception {
+        // Given
+        underTest.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    CustomerMappedFileDataAccessService.HEADER_SIZE);
+            header.putLong(CustomerMappedFileDataAccessService.HEADER_LAST_ID, Integer.MAX_VALUE);
+            header.force();
+        }
+        underTest = new CustomerMappedFileDataAccessService(file, 1_000);
+        Customer customer = new Customer("big", "big@gmail.com", "password", 21, Gender.MALE);
+
+        // When
+        underTest.insertCustomer(customer);
+        underTest.close();
+        underTest = new CustomerMappedFileDataAccessService(file, 1_000);
+
+        // Then
+        long id = Integer.MAX_VALUE + 1L;
+        assertThat(customer.getId()).isEqualTo(id);
+        assertThat(underTest.selectCustomerById(id))
+                .hasValueSatisfying(c -> assertThat(c.getEmail()).isEqualTo("big@gmail.com"));
+        assertThat(underTest.selectCustomersAfter((long) Integer.MAX_VALUE, 10))
+                .extracting(Customer::getId)
+                .containsExactly(id);
+    }
+
+    @Test
+    void willThrowWhenTheStoreHasAnOlderVersion() throws Exception {
+        // Given
+        Path old = directory.resolve("old.db");
+        new CustomerMappedFileDataAccessService(old, 8).close();
+        try (FileChannel channel = FileChannel.open(old, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    CustomerMappedFileDataAccessService.HEADER_SIZE);
+            header.putInt(CustomerMappedFileDataAccessService.HEADER_VERSION, 2);
+            header.force();
+        }
+
+        // When
+        // Then
+        assertThatThrownBy(() -> new CustomerMappedFileDataAccessService(old, 8))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("version 2");
+    }
+}
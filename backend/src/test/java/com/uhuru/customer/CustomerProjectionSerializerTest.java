@@ -0,0 +1,37 @@
+package com.uhuru.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerProjectionSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Customer customer = new Customer(
+            1L, "test", "test@gmail.com", "password", 21, Gender.MALE);
+
+    @Test
+    void writesOnlyRequestedFields() throws Exception {
+        // Given
+        CustomerProjection projection = CustomerProjection.of(CustomerFieldSet.parse("id,name"), customer);
+
+        // When
+        String actual = objectMapper.writeValueAsString(projection);
+
+        // Then
+        assertThat(actual).isEqualTo("{\"id\":1,\"name\":\"test\"}");
+    }
+
+    @Test
+    void allFieldsMatchTheCustomerDto() throws Exception {
+        // Given
+        CustomerProjection projection = CustomerProjection.of(CustomerFieldSet.ALL, customer);
+
+        // When
+        String actual = objectMapper.writeValueAsString(projection);
+
+        // Then
+        assertThat(actual).isEqualTo(objectMapper.writeValueAsString(new CustomerDTOMapper().apply(customer)));
+    }
+}
@@ -9,8 +9,11 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -80,7 +83,7 @@ class CustomerRepositoryTest extends AbstractTestcontainersUnitTest {
 
         underTest.save(customer);
 
-        int id = underTest.findAll()
+        long id = underTest.findAll()
                 .stream()
                 .filter(c -> c.getEmail().equals(customer.getEmail()))
                 .map(Customer::getId)
@@ -98,7 +101,7 @@ class CustomerRepositoryTest extends AbstractTestcontainersUnitTest {
     @Test
     void existsCustomerByIdWillReturnFalseWhenIdNotPresent() {
         // Given
-        int id = -19;
+        long id = -19;
 
         // When
         Boolean exist =  underTest.existsCustomerById(id);
@@ -106,4 +109,26 @@ class CustomerRepositoryTest extends AbstractTestcontainersUnitTest {
         // Then
         assertThat(exist).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByGenderAndAgeBetweenAfterSeeksInAgeThenIdOrder() {
+        // Given
+        List<Customer> saved = IntStream.of(151, 150, 150, 152)
+                .mapToObj(age -> underTest.save(new Customer(
+                        FAKER.name().fullName(),
+                        UUID.randomUUID() + "@gmail.com",
+                        "password", age,
+                        Gender.FEMALE)))
+                .toList();
+        Customer first = saved.get(1);
+
+        // When
+        List<Customer> page = underTest.findByGenderAndAgeBetweenAfter(
+                Gender.FEMALE, 150, 151, first.getAge(), first.getId(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(page)
+                .extracting(Customer::getId)
+                .containsExactly(saved.get(2).getId(), saved.get(0).getId());
+    }
+}
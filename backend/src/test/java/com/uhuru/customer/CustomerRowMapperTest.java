@@ -23,7 +23,7 @@ class CustomerRowMapperTest {
         CustomerRowMapper customerRowMapper = new CustomerRowMapper();
 
         ResultSet resultSet = mock(ResultSet.class);
-        when(resultSet.getInt("id")).thenReturn(1);
+        when(resultSet.getLong("id")).thenReturn(1L);
         when(resultSet.getInt("age")).thenReturn(19);
         when(resultSet.getString("name")).thenReturn("test");
         when(resultSet.getString("email")).thenReturn("test@gmail.com");
@@ -34,7 +34,7 @@ class CustomerRowMapperTest {
 
         // Then
         Customer expected = new Customer(
-                1, "test", "test@gmail.com", "password", 19, Gender.MALE);
+                1L, "test", "test@gmail.com", "password", 19, Gender.MALE);
 
         assertThat(actual).isEqualTo(expected);
     }
@@ -3,15 +3,20 @@ package com.uhuru.customer;
 import com.uhuru.exception.DuplicateResourceException;
 import com.uhuru.exception.RequestValidationException;
 import com.uhuru.exception.ResourceNotFoundException;
+import com.uhuru.jwt.TokenRevocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
@@ -33,13 +38,19 @@ class CustomerServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private CustomerStatsAggregate customerStatsAggregate;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
 
 
     @BeforeEach
     void setUp() {
         //autoCloseable = MockitoAnnotations.openMocks(this);
-        underTest = new CustomerService(customerDao, customerDTOMapper, passwordEncoder);
+        underTest = new CustomerService(
+                customerDao, customerDTOMapper, passwordEncoder, customerStatsAggregate, tokenRevocationService);
     }
 
 //    @AfterEach
@@ -59,11 +70,141 @@ class CustomerServiceTest {
 
     }
 
+    @Test
+    void canGetPageOfCustomersWithNextCursor() {
+        // Given
+        List<Customer> customers = List.of(
+                new Customer(1L, "one", "one@gmail.com", "password", 21, Gender.MALE),
+                new Customer(2L, "two", "two@gmail.com", "password", 22, Gender.FEMALE),
+                new Customer(3L, "three", "three@gmail.com", "password", 23, Gender.MALE)
+        );
+
+        when(customerDao.selectCustomersAfter(null, 3)).thenReturn(customers);
+
+        // When
+        CustomerPage<CustomerDTO> actual = underTest.getCustomers(null, 2, false);
+
+        // Then
+        assertThat(actual.customers())
+                .extracting(CustomerDTO::id)
+                .containsExactly(1L, 2L);
+        assertThat(CustomerCursor.decode(actual.nextCursor())).isEqualTo(2);
+        assertThat(actual.approximateTotal()).isNull();
+        verify(customerDao, never()).approximateCustomerCount();
+    }
+
+    @Test
+    void canGetLastPageOfCustomersWithTotal() {
+        // Given
+        String cursor = CustomerCursor.encode(2L);
+        List<Customer> customers = List.of(
+                new Customer(3L, "three", "three@gmail.com", "password", 23, Gender.MALE)
+        );
+
+        when(customerDao.selectCustomersAfter(2L, 3)).thenReturn(customers);
+        when(customerDao.approximateCustomerCount()).thenReturn(3L);
+
+        // When
+        CustomerPage<CustomerDTO> actual = underTest.getCustomers(cursor, 2, true);
+
+        // Then
+        assertThat(actual.customers()).hasSize(1);
+        assertThat(actual.nextCursor()).isNull();
+        assertThat(actual.approximateTotal()).isEqualTo(3L);
+    }
+
+    @Test
+    void canGetPageOfCustomerProjections() {
+        // Given
+        CustomerFieldSet fields = CustomerFieldSet.parse("id,name");
+        List<CustomerProjection> projections = List.of(
+                new CustomerProjection(fields, 1L, "one", null, null, null),
+                new CustomerProjection(fields, 2L, "two", null, null, null)
+        );
+
+        when(customerDao.selectCustomerProjectionsAfter(fields, null, 2)).thenReturn(projections);
+
+        // When
+        CustomerPage<CustomerProjection> actual = underTest.getCustomers(null, 1, false, fields);
+
+        // Then
+        assertThat(actual.customers()).containsExactly(projections.get(0));
+        assertThat(actual.nextCursor()).isEqualTo(CustomerCursor.encode(1L));
+        verify(customerDao, never()).selectCustomersAfter(any(), anyInt());
+    }
+
+    @Test
+    void canGetFilteredPageContinuingFromAgeAndId() {
+        // Given
+        CustomerFieldSet fields = CustomerFieldSet.parse("name");
+        CustomerFilter filter = new CustomerFilter(20, null, Gender.FEMALE);
+        CustomerCursor.Position after = new CustomerCursor.Position(21, 4);
+        List<CustomerProjection> projections = List.of(
+                new CustomerProjection(fields, 2L, "two", null, null, 22),
+                new CustomerProjection(fields, 1L, "one", null, null, 23)
+        );
+
+        when(customerDao.selectCustomerProjectionsMatching(fields, filter, after, 2)).thenReturn(projections);
+
+        // When
+        CustomerPage<CustomerProjection> actual =
+                underTest.getCustomers(CustomerCursor.encode(after), 1, true, fields, filter);
+
+        // Then
+        assertThat(actual.customers()).containsExactly(projections.get(0));
+        assertThat(CustomerCursor.decodePosition(actual.nextCursor()))
+                .isEqualTo(new CustomerCursor.Position(22, 2));
+        assertThat(actual.approximateTotal()).isNull();
+        verify(customerDao, never()).approximateCustomerCount();
+    }
+
+    @Test
+    void canSearchCustomers() {
+        // Given
+        CustomerFieldSet fields = CustomerFieldSet.ALL;
+
+        // When
+        underTest.searchCustomers("  alex ", 20, fields);
+
+        // Then
+        verify(customerDao).searchCustomers(fields, "alex", 20);
+    }
+
+    @Test
+    void willThrowWhenSearchQueryIsTooShort() {
+        assertThatThrownBy(() -> underTest.searchCustomers("al", 20, CustomerFieldSet.ALL))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("search query must have at least 3 characters");
+        verify(customerDao, never()).searchCustomers(any(), any(), anyInt());
+    }
+
+    @Test
+    void willThrowWhenPageSizeIsOutOfRange() {
+        // When
+        assertThatThrownBy(() -> underTest.getCustomers(null, 0, false))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("page size must be between 1 and %s".formatted(CustomerService.MAX_PAGE_SIZE));
+
+        // Then
+        verify(customerDao, never()).selectCustomersAfter(any(), anyInt());
+    }
+
+    @Test
+    void willThrowWhenCursorIsInvalid() {
+        // When
+        assertThatThrownBy(() -> underTest.getCustomers("not-a-cursor", 10, false))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("invalid cursor [not-a-cursor]");
+
+        // Then
+        verify(customerDao, never()).selectCustomersAfter(any(), anyInt());
+    }
+
     @Test
     void canGetCustomer() {
         // Given
         Customer customer = new Customer(
-                1,
+                1L,
                 "test",
                 "test@gmail.com",
                 "password",
@@ -82,10 +223,44 @@ class CustomerServiceTest {
 
     }
 
+    @Test
+    void canGetCustomersByIdsInRequestOrder() {
+        // Given
+        Customer one = new Customer(1L, "one", "one@gmail.com", "password", 21, Gender.MALE);
+        Customer three = new Customer(3L, "three", "three@gmail.com", "password", 23, Gender.FEMALE);
+
+        when(customerDao.selectCustomersByIds(any())).thenReturn(List.of(one, three));
+
+        // When
+        CustomerLookup<CustomerDTO> actual = underTest.getCustomersByIds(List.of(3L, 2L, 1L, 3L));
+
+        // Then
+        assertThat(actual.customers())
+                .extracting(CustomerDTO::id)
+                .containsExactly(3L, 1L);
+        assertThat(actual.missingIds()).containsExactly(2L);
+        verify(customerDao).selectCustomersByIds(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void willThrowWhenTooManyIdsAreRequested() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, CustomerService.MAX_PAGE_SIZE + 1)
+                .boxed()
+                .toList();
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.getCustomersByIds(ids))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("between 1 and %s ids must be requested".formatted(CustomerService.MAX_PAGE_SIZE));
+        verify(customerDao, never()).selectCustomersByIds(any());
+    }
+
     @Test
     void willThrowErrorWhenGetCustomerReturnEmptyOption() {
         // Given
-        int id = 11;
+        long id = 11;
 
         when(customerDao.selectCustomerById(id)).thenReturn(Optional.empty());
 
@@ -96,19 +271,38 @@ class CustomerServiceTest {
                 .hasMessage("customer with id [%s] not found".formatted(id));
     }
 
+    @Test
+    void canCheckEmailAvailability() {
+        // Given
+        String email = "free@gmail.com";
+        when(customerDao.existPersonWithEmail(email)).thenReturn(false);
+
+        // When
+        EmailAvailability actual = underTest.checkEmailAvailability(email);
+
+        // Then
+        assertThat(actual.available()).isTrue();
+    }
+
+    @Test
+    void willThrowWhenCheckingAvailabilityOfBlankEmail() {
+        assertThatThrownBy(() -> underTest.checkEmailAvailability(" "))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("email is required");
+    }
+
     @Test
     void addCustomer() {
         // Given
         String email =  "test@gmial.com";
 
-        when(customerDao.existPersonWithEmail(email)).thenReturn(false);
-
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
         "test", email, "password", 21, Gender.MALE);
 
         String passwordHash = "~22221`2344234ferfg087";
 
         when(passwordEncoder.encode("password")).thenReturn(passwordHash);
+        when(customerDao.insertCustomerIfAbsent(any())).thenReturn(Optional.of(1L));
 
         // When
         underTest.addCustomer(request);
@@ -118,7 +312,8 @@ class CustomerServiceTest {
                 Customer.class
         );
 
-        verify(customerDao).insertCustomer(customerArgumentCaptor.capture());
+        verify(customerDao).insertCustomerIfAbsent(customerArgumentCaptor.capture());
+        verify(customerDao, never()).existPersonWithEmail(any());
 
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
@@ -146,7 +341,7 @@ class CustomerServiceTest {
         // Given
         String email =  "test@gmial.com";
 
-        when(customerDao.existPersonWithEmail(email)).thenReturn(true);
+        when(customerDao.insertCustomerIfAbsent(any())).thenReturn(Optional.empty());
 
         CustomerRegistrationRequest request = new CustomerRegistrationRequest("test", email, "password", 21, Gender.MALE);
 
@@ -164,24 +359,26 @@ class CustomerServiceTest {
     @Test
     void deleteCustomerById() {
         // Given
-        int id = 10;
+        long id = 10;
+        Customer customer = new Customer(id, "test", "test@gmail.com", "password", 21, Gender.MALE);
 
-        when(customerDao.existPersonWithId(id)).thenReturn(true);
+        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
 
         // When
         underTest.deleteCustomerById(id);
 
         // Then
         verify(customerDao).deleteCustomerById(id);
+        verify(tokenRevocationService).revokeCustomer(id);
 
     }
 
     @Test
     void willThrowErrorWhenGetDeleteCustomerByIdNotFound() {
         // Given
-        int id = 11;
+        long id = 11;
 
-        when(customerDao.existPersonWithId(id)).thenReturn(false);
+        when(customerDao.selectCustomerById(id)).thenReturn(Optional.empty());
 
         // When
         assertThatThrownBy(() ->underTest.deleteCustomerById(id))
@@ -197,7 +394,7 @@ class CustomerServiceTest {
     @Test
     void canUpdateAllCustomerValues() {
         // Given
-        int id = 11;
+        long id = 11;
 
         Customer customer = new Customer(
                 id,
@@ -212,8 +409,6 @@ class CustomerServiceTest {
         String newEmail = "Alex@gmail.com";
         CustomerUpdateRequest request = new CustomerUpdateRequest("Alex", newEmail, 21);
 
-        when(customerDao.existPersonWithEmail(newEmail)).thenReturn(false);
-
         // When
         underTest.updateCustomer(id, request);
 
@@ -234,7 +429,7 @@ class CustomerServiceTest {
     @Test
     void canUpdateCustomerName() {
         // Given
-        int id = 11;
+        long id = 11;
 
         Customer customer = new Customer(
                 id,
@@ -271,7 +466,7 @@ class CustomerServiceTest {
     @Test
     void canUpdateCustomerEmail() {
         // Given
-        int id = 11;
+        long id = 11;
 
         Customer customer = new Customer(
                 id,
@@ -290,8 +485,6 @@ class CustomerServiceTest {
                 customer.getAge());
 
 
-        when(customerDao.existPersonWithEmail(newEmail)).thenReturn(false);
-
         // When
         underTest.updateCustomer(id, request);
 
@@ -308,10 +501,48 @@ class CustomerServiceTest {
     }
 
 
+    @Test
+    void updateOnlyPatchesChangedColumns() {
+        // Given
+        long id = 11;
+
+        Customer customer = new Customer(
+                id,
+                "test",
+                "test@gmail.com",
+                "password",
+                19,
+                Gender.MALE);
+
+        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+
+        CustomerUpdateRequest request = new CustomerUpdateRequest(
+                "Alex",
+                customer.getEmail(),
+                customer.getAge());
+
+        // When
+        underTest.updateCustomer(id, request);
+
+        // Then
+        ArgumentCaptor<Customer> customerArgumentCaptor =
+                ArgumentCaptor.forClass(Customer.class);
+
+        verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
+
+        Customer capturedCustomer = customerArgumentCaptor.getValue();
+
+        assertThat(capturedCustomer.getId()).isEqualTo(id);
+        assertThat(capturedCustomer.getName()).isEqualTo("Alex");
+        assertThat(capturedCustomer.getEmail()).isNull();
+        assertThat(capturedCustomer.getPassword()).isNull();
+        assertThat(capturedCustomer.getAge()).isNull();
+    }
+
     @Test
     void canUpdateCustomerAge() {
         // Given
-        int id = 11;
+        long id = 11;
 
         Customer customer = new Customer(
                 id,
@@ -349,7 +580,7 @@ class CustomerServiceTest {
     @Test
     void willThrowErrorWhenUpdateCustomerNotFound() {
         // Given
-        int id = 11;
+        long id = 11;
 
         Customer customer = new Customer(
                 id,
@@ -377,7 +608,7 @@ class CustomerServiceTest {
     @Test
     void willThrowWhenTryingToUpdateCustomerEmailWhenAlreadyTaken() {
         // Given
-        int id = 10;
+        long id = 10;
         Customer customer = new Customer(id, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
         when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
 
@@ -385,19 +616,20 @@ class CustomerServiceTest {
 
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(null, newEmail, null);
 
-        when(customerDao.existPersonWithEmail(newEmail)).thenReturn(true);
+        doThrow(new DuplicateKeyException("customer_email_unique"))
+                .when(customerDao).updateCustomer(any());
 
         // When
         assertThatThrownBy(() -> underTest.updateCustomer(id, updateRequest)).isInstanceOf(DuplicateResourceException.class).hasMessage("email already taken");
 
         // Then
-        verify(customerDao, never()).updateCustomer(any());
+        verify(customerDao, never()).existPersonWithEmail(any());
     }
 
     @Test
     void willThrowErrorWhenUpdateCustomerHasNoChanges() {
         // Given
-        int id = 11;
+        long id = 11;
 
         Customer customer = new Customer(
                 id,
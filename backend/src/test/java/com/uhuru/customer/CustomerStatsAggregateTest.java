@@ -0,0 +1,69 @@
+package com.uhuru.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStatsAggregateTest {
+
+    private CustomerStatsAggregate underTest;
+
+    @Mock
+    private CustomerJDBCDataAccessService customerDao;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerStatsAggregate(customerDao, 10, Duration.ofMinutes(5));
+        when(customerDao.countCustomersByGenderAndAgeBucket(10, CustomerStatsAggregate.BUCKETS - 1))
+                .thenReturn(List.of(
+                        new CustomerAgeBucket(Gender.MALE, 2, 3),
+                        new CustomerAgeBucket(Gender.FEMALE, 2, 1),
+                        new CustomerAgeBucket(Gender.FEMALE, 3, 2)
+                ));
+        underTest.reconcile();
+    }
+
+    @Test
+    void snapshotReflectsReconciledCounts() {
+        // When
+        CustomerStats actual = underTest.snapshot();
+
+        // Then
+        assertThat(actual.total()).isEqualTo(6);
+        assertThat(actual.byGender()).isEqualTo(Map.of(Gender.MALE, 3L, Gender.FEMALE, 3L));
+        assertThat(actual.ageHistogram()).containsExactly(
+                Map.entry("20-29", 4L),
+                Map.entry("30-39", 2L)
+        );
+    }
+
+    @Test
+    void rowChangesUpdateCountsIncrementally() {
+        // When
+        underTest.apply(Gender.MALE, 45, 1);
+        underTest.apply(Gender.FEMALE, 31, -1);
+        underTest.apply(Gender.MALE, 25, -1);
+        underTest.apply(Gender.MALE, 500, 1);
+
+        // Then
+        CustomerStats actual = underTest.snapshot();
+        assertThat(actual.total()).isEqualTo(6);
+        assertThat(actual.byGender()).isEqualTo(Map.of(Gender.MALE, 4L, Gender.FEMALE, 2L));
+        assertThat(actual.ageHistogram()).containsExactly(
+                Map.entry("20-29", 3L),
+                Map.entry("30-39", 1L),
+                Map.entry("40-49", 1L),
+                Map.entry("310+", 1L)
+        );
+    }
+}
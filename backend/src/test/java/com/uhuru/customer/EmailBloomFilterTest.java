@@ -0,0 +1,74 @@
+package com.uhuru.customer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailBloomFilterTest {
+
+    @Test
+    void reportsEveryEmailAsPossiblyPresentUntilReady() {
+        // Given
+        EmailBloomFilter underTest = new EmailBloomFilter(100, 0.01);
+
+        // Then
+        assertThat(underTest.mightContain("unknown@gmail.com")).isTrue();
+    }
+
+    @Test
+    void neverReturnsFalseNegativesWhileGrowing() {
+        // Given
+        EmailBloomFilter underTest = new EmailBloomFilter(100, 0.01);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            underTest.put("customer-" + i + "@gmail.com");
+        }
+        underTest.markReady();
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(underTest.mightContain("customer-" + i + "@gmail.com")).isTrue();
+        }
+    }
+
+    @Test
+    void rejectsMostUnknownEmails() {
+        // Given
+        EmailBloomFilter underTest = new EmailBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            underTest.put("customer-" + i + "@gmail.com");
+        }
+        underTest.markReady();
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (underTest.mightContain("stranger-" + i + "@gmail.com")) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @Test
+    void staysStaleUntilALoadStartedAfterTheChangeFinishes() {
+        // Given
+        EmailBloomFilter underTest = new EmailBloomFilter(100, 0.01);
+        underTest.markReady();
+        long loadStartedBefore = underTest.generation();
+
+        // When
+        underTest.markStale();
+        underTest.markReady(loadStartedBefore);
+        boolean readyAfterOlderLoad = underTest.isReady();
+        underTest.markReady(underTest.generation());
+
+        // Then
+        assertThat(readyAfterOlderLoad).isFalse();
+        assertThat(underTest.isReady()).isTrue();
+        assertThat(underTest.mightContain("unknown@gmail.com")).isFalse();
+    }
+}
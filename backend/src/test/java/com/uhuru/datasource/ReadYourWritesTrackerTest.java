@@ -0,0 +1,51 @@
+package com.uhuru.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesTrackerTest {
+
+    @Test
+    void pinnedClientRequiresItsLastWritePosition() {
+        // Given
+        ReadYourWritesTracker underTest = new ReadYourWritesTracker(Duration.ofMinutes(1));
+
+        // When
+        underTest.pin(List.of("address:10.0.0.1", "principal:alex@gmail.com"), 42);
+
+        // Then
+        assertThat(underTest.requiredLsn(List.of("principal:alex@gmail.com"))).isEqualTo(42);
+        assertThat(underTest.requiredLsn(List.of("address:10.0.0.2"))).isZero();
+    }
+
+    @Test
+    void pinExpiresAfterWindow() {
+        // Given
+        ReadYourWritesTracker underTest = new ReadYourWritesTracker(Duration.ZERO);
+        underTest.pin(List.of("address:10.0.0.1"), 42);
+
+        // When
+        long actual = underTest.requiredLsn(List.of("address:10.0.0.1"));
+
+        // Then
+        assertThat(actual).isZero();
+        assertThat(underTest.size()).isZero();
+    }
+
+    @Test
+    void purgeExpiredDropsStalePins() {
+        // Given
+        ReadYourWritesTracker underTest = new ReadYourWritesTracker(Duration.ZERO);
+        underTest.pin(List.of("address:10.0.0.1", "address:10.0.0.2"), 42);
+
+        // When
+        underTest.purgeExpired();
+
+        // Then
+        assertThat(underTest.size()).isZero();
+    }
+}
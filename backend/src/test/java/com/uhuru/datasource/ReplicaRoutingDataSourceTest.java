@@ -0,0 +1,108 @@
+package com.uhuru.datasource;
+
+import com.uhuru.customer.CachingCustomerDao;
+import com.uhuru.customer.Customer;
+import com.uhuru.customer.CustomerDao;
+import com.uhuru.customer.Gender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Customer fresh = new Customer(1L, "fresh", "test@gmail.com", "password", 21, Gender.MALE);
+    private final Customer stale = new Customer(1L, "stale", "test@gmail.com", "password", 21, Gender.MALE);
+
+    private ReplicaRoutingDataSource underTest;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // a replica that has replayed up to position 10 and never catches up
+        DataSource replica = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(10L);
+
+        underTest = new ReplicaRoutingDataSource(mock(DataSource.class), List.of(replica));
+        underTest.refreshReplayedLsns();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRoutingDataSource.clearRequiredLsn();
+    }
+
+    @Test
+    void unpinnedReadsGoToAReplica() {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Object actual = underTest.determineCurrentLookupKey();
+
+        // Then
+        assertThat(actual).isEqualTo(0);
+    }
+
+    @Test
+    void readFromPrimaryBypassesReplicasAndRestoresThePin() {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingDataSource.requireLsn(5);
+
+        // When
+        Object actual = ReplicaRoutingDataSource.readFromPrimary(underTest::determineCurrentLookupKey);
+
+        // Then
+        assertThat(actual).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(underTest.determineCurrentLookupKey()).isEqualTo(0);
+    }
+
+    @Test
+    void cacheIsNotFilledFromALaggingReplica() {
+        // Given
+        // the delegate answers like a read-only JDBC DAO: the replica still has the row from before the write
+        CustomerDao delegate = mock(CustomerDao.class);
+        when(delegate.selectCustomerById(1L)).thenAnswer(invocation -> {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            try {
+                return Optional.of(ReplicaRoutingDataSource.PRIMARY.equals(underTest.determineCurrentLookupKey())
+                        ? fresh
+                        : stale);
+            } finally {
+                TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            }
+        });
+        CachingCustomerDao cache = new CachingCustomerDao(
+                delegate, 100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+
+        // When
+        Optional<Customer> first = cache.selectCustomerById(1L);
+        Optional<Customer> second = cache.selectCustomerById(1L);
+
+        // Then
+        assertThat(first).map(Customer::getName).hasValue("fresh");
+        assertThat(second).map(Customer::getName).hasValue("fresh");
+    }
+}
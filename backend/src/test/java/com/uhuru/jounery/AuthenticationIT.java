@@ -25,7 +25,7 @@ import java.util.UUID;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest(webEnvironment = RANDOM_PORT)
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "rate-limit.enabled=false")
 public class AuthenticationIT {
     @Autowired
     private WebTestClient webTestClient;
@@ -115,4 +115,54 @@ public class AuthenticationIT {
         assertThat(customerDTO.roles()).isEqualTo(List.of("ROLE_USER"));
 
     }
+
+    @Test
+    void loggedOutTokenIsRejected() {
+        // Given
+        String email = "logout-" + UUID.randomUUID() + "@amigoscode.com";
+        CustomerRegistrationRequest customerRegistrationRequest = new CustomerRegistrationRequest(
+                "Logout", email, "password", 30, Gender.FEMALE
+        );
+
+        String jwtToken = webTestClient.post()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(
+                        Mono.just(customerRegistrationRequest),
+                        CustomerRegistrationRequest.class
+                )
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .get(HttpHeaders.AUTHORIZATION)
+                .get(0);
+
+        webTestClient.get()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        // When
+        webTestClient.post()
+                .uri(AUTHENTICATION_PATH + "/logout")
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        // Then
+        webTestClient.get()
+                .uri(CUSTOMER_PATH)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isForbidden();
+    }
 }
@@ -2,6 +2,7 @@ package com.uhuru.jounery;
 
 
 import com.uhuru.customer.CustomerDTO;
+import com.uhuru.customer.CustomerPage;
 import com.uhuru.customer.CustomerRegistrationRequest;
 import com.uhuru.customer.Gender;
 import org.junit.jupiter.api.Test;
@@ -14,14 +15,16 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import com.github.javafaker.Faker;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 
-@SpringBootTest(webEnvironment = RANDOM_PORT)
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "rate-limit.enabled=false")
 public class CustomerIT {
 
     @Autowired
@@ -57,18 +60,9 @@ public class CustomerIT {
                             .get(0);
 
         // get all customers
-        List<CustomerDTO> allCustomers = webTestClient.get()
-                .uri(CUSTOMER_URI)
-                .accept(MediaType.APPLICATION_JSON)
-                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {})
-                .returnResult()
-                .getResponseBody();
+        List<CustomerDTO> allCustomers = getAllCustomers(jwtToken);
 
-        int customerId = allCustomers
+        long customerId = allCustomers
                     .stream()
                     .filter(c -> c.email().equals(email))
                     .map(CustomerDTO::id)
@@ -131,18 +125,9 @@ public class CustomerIT {
 
 
         // get all customers
-        List<CustomerDTO> allCustomers = webTestClient.get()
-                .uri(CUSTOMER_URI)
-                .accept(MediaType.APPLICATION_JSON)
-                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {})
-                .returnResult()
-                .getResponseBody();
+        List<CustomerDTO> allCustomers = getAllCustomers(jwtToken);
 
-        int customerId = allCustomers
+        long customerId = allCustomers
                 .stream()
                 .filter(c -> c.email().equals(email))
                 .map(CustomerDTO::id)
@@ -213,18 +198,9 @@ public class CustomerIT {
 
 
         // get all customers
-        List<CustomerDTO> allCustomers = webTestClient.get()
-                .uri(CUSTOMER_URI)
-                .accept(MediaType.APPLICATION_JSON)
-                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {})
-                .returnResult()
-                .getResponseBody();
+        List<CustomerDTO> allCustomers = getAllCustomers(jwtToken);
 
-        int customerId = allCustomers
+        long customerId = allCustomers
                 .stream()
                 .filter(c -> c.email().equals(email))
                 .map(CustomerDTO::id)
@@ -291,4 +267,30 @@ public class CustomerIT {
 
     }
 
+    private List<CustomerDTO> getAllCustomers(String jwtToken) {
+        List<CustomerDTO> customers = new ArrayList<>();
+        String cursor = null;
+        do {
+            Optional<String> pageCursor = Optional.ofNullable(cursor);
+            CustomerPage<CustomerDTO> page = webTestClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path(CUSTOMER_URI)
+                            .queryParam("size", 500)
+                            .queryParamIfPresent("cursor", pageCursor)
+                            .build())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody(new ParameterizedTypeReference<CustomerPage<CustomerDTO>>() {})
+                    .returnResult()
+                    .getResponseBody();
+
+            customers.addAll(page.customers());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return customers;
+    }
+
 }
@@ -0,0 +1,73 @@
+package com.uhuru.jwt;
+
+import com.uhuru.jwt.CustomerTokenRevocations.Status;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerTokenRevocationsTest {
+
+    @Test
+    void tokensIssuedBeforeRevocationAreRejected() {
+        // Given
+        CustomerTokenRevocations underTest = new CustomerTokenRevocations(100, Duration.ofDays(15));
+        Date before = Date.from(Instant.now().minusSeconds(60));
+        Date after = Date.from(Instant.now().plusSeconds(60));
+
+        // When
+        underTest.revoke(1L);
+
+        // Then
+        assertThat(underTest.status(1L, before)).isEqualTo(Status.REVOKED);
+        assertThat(underTest.status(1L, after)).isEqualTo(Status.NOT_REVOKED);
+        assertThat(underTest.status(2L, before)).isEqualTo(Status.NOT_REVOKED);
+    }
+
+    @Test
+    void revokeAllRejectsEveryOlderToken() {
+        // Given
+        CustomerTokenRevocations underTest = new CustomerTokenRevocations(100, Duration.ofDays(15));
+        Date before = Date.from(Instant.now().minusSeconds(60));
+
+        // When
+        underTest.revokeAll();
+
+        // Then
+        assertThat(underTest.status(2L, before)).isEqualTo(Status.REVOKED);
+        assertThat(underTest.status(2L, Date.from(Instant.now().plusSeconds(60)))).isEqualTo(Status.NOT_REVOKED);
+    }
+
+    @Test
+    void tokensIssuedInTheSecondOfTheRevocationAreRejected() {
+        // Given
+        CustomerTokenRevocations underTest = new CustomerTokenRevocations(100, Duration.ofDays(15));
+        long revokedAt = Instant.now().getEpochSecond();
+
+        // When
+        underTest.revoke(1L, revokedAt);
+
+        // Then
+        assertThat(underTest.status(1L, Date.from(Instant.ofEpochSecond(revokedAt, 999_000_000)))).isEqualTo(Status.REVOKED);
+        assertThat(underTest.status(1L, Date.from(Instant.ofEpochSecond(revokedAt + 1)))).isEqualTo(Status.NOT_REVOKED);
+    }
+
+    @Test
+    void droppedEntriesMakeOlderTokensUnknownInsteadOfRevoked() {
+        // Given
+        CustomerTokenRevocations underTest = new CustomerTokenRevocations(1, Duration.ofDays(15));
+        long revokedAt = Instant.now().getEpochSecond();
+        underTest.revoke(1L, revokedAt);
+        underTest.revoke(2L, revokedAt);
+
+        // When
+        underTest.cleanUp();
+
+        // Then
+        assertThat(underTest.status(3L, Date.from(Instant.ofEpochSecond(revokedAt - 60)))).isEqualTo(Status.UNKNOWN);
+        assertThat(underTest.status(3L, Date.from(Instant.ofEpochSecond(revokedAt + 1)))).isEqualTo(Status.NOT_REVOKED);
+    }
+}
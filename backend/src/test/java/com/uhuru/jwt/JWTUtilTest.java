@@ -0,0 +1,58 @@
+package com.uhuru.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JWTUtilTest {
+
+    private final JWTUtil underTest = new JWTUtil(100);
+
+    @Test
+    void verifiedClaimsAreReusedForTheSameToken() {
+        // Given
+        String token = underTest.issueToken("alex@gmail.com", "ROLE_USER");
+
+        // When
+        Claims first = underTest.getClaims(token);
+        Claims second = underTest.getClaims(token);
+
+        // Then
+        assertThat(first.getSubject()).isEqualTo("alex@gmail.com");
+        assertThat(second).isSameAs(first);
+        assertThat(underTest.isTokenValid(first, "alex@gmail.com")).isTrue();
+        assertThat(underTest.isTokenValid(first, "jamila@gmail.com")).isFalse();
+    }
+
+    @Test
+    void everyTokenCarriesItsOwnId() {
+        // Given
+        String first = underTest.issueToken("alex@gmail.com", 1L, List.of("ROLE_USER"));
+        String second = underTest.issueToken("alex@gmail.com", 1L, List.of("ROLE_USER"));
+
+        // When
+        Claims firstClaims = underTest.getClaims(first);
+        Claims secondClaims = underTest.getClaims(second);
+
+        // Then
+        assertThat(firstClaims.getId()).isNotBlank();
+        assertThat(secondClaims.getId()).isNotEqualTo(firstClaims.getId());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        // Given
+        String token = underTest.issueToken("alex@gmail.com");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.getClaims(tampered))
+                .isInstanceOf(JwtException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.uhuru.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokensTest {
+
+    private final RevokedTokens underTest = new RevokedTokens(Duration.ofSeconds(10), 1000, 0.01);
+
+    @Test
+    void revokedIdsMightBeRevokedUntilTheTokenExpires() {
+        // Given
+        long expiresAt = Instant.now().plusSeconds(60).getEpochSecond();
+
+        // When
+        underTest.revoke("abc", expiresAt);
+
+        // Then
+        assertThat(underTest.mightBeRevoked("abc", expiresAt)).isTrue();
+        assertThat(underTest.mightBeRevoked("def", expiresAt)).isFalse();
+        assertThat(underTest.mightBeRevoked("abc", expiresAt + 3600)).isFalse();
+        assertThat(underTest.mightBeRevoked(null, expiresAt)).isFalse();
+    }
+
+    @Test
+    void alreadyExpiredTokensAreNotKept() {
+        // Given
+        long expiresAt = Instant.now().minusSeconds(60).getEpochSecond();
+
+        // When
+        underTest.revoke("abc", expiresAt);
+
+        // Then
+        assertThat(underTest.mightBeRevoked("abc", expiresAt)).isFalse();
+        assertThat(underTest.bucketCount()).isZero();
+    }
+
+    @Test
+    void falsePositivesStayNearTheConfiguredRate() {
+        // Given
+        long expiresAt = Instant.now().plusSeconds(60).getEpochSecond();
+        for (int i = 0; i < 1000; i++) {
+            underTest.revoke("revoked-" + i, expiresAt);
+        }
+
+        // When
+        long falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (underTest.mightBeRevoked("active-" + i, expiresAt)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertThat(falsePositives).isLessThan(300);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(underTest.mightBeRevoked("revoked-" + i, expiresAt)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.uhuru.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uhuru.jwt.CustomerTokenRevocations.Status;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    private TokenRevocationService underTest;
+    private RevokedTokens revokedTokens;
+    private CustomerTokenRevocations customerTokenRevocations;
+    private final JWTUtil jwtUtil = new JWTUtil(100);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokens = new RevokedTokens(Duration.ofDays(1), 1000, 0.01);
+        customerTokenRevocations = new CustomerTokenRevocations(100, Duration.ofDays(15));
+        underTest = new TokenRevocationService(
+                jdbcTemplate, revokedTokens, customerTokenRevocations, new ObjectMapper(), Duration.ofHours(1), 100);
+    }
+
+    @Test
+    void revokeTokenPersistsAndRejectsOnlyThatToken() {
+        // Given
+        Claims loggedOut = jwtUtil.getClaims(jwtUtil.issueToken("alex@gmail.com", 1L, List.of("ROLE_USER")));
+        Claims other = jwtUtil.getClaims(jwtUtil.issueToken("alex@gmail.com", 1L, List.of("ROLE_USER")));
+
+        // When
+        underTest.revokeToken(loggedOut);
+
+        // Then
+        verify(jdbcTemplate).update(contains("INSERT INTO revoked_token"), eq(loggedOut.getId()), eq(1L), any());
+        assertThat(underTest.isTokenRevoked(loggedOut)).isTrue();
+        assertThat(underTest.isTokenRevoked(other)).isFalse();
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Boolean.class), any());
+    }
+
+    @Test
+    void revokeCustomerPersistsAndRejectsOlderTokens() {
+        // Given
+        Date issuedAt = Date.from(Instant.now().minusSeconds(60));
+
+        // When
+        underTest.revokeCustomer(1L);
+
+        // Then
+        verify(jdbcTemplate).update(contains("INSERT INTO revoked_token"), eq(1L), any(), any());
+        assertThat(customerTokenRevocations.status(1L, issuedAt)).isEqualTo(Status.REVOKED);
+        assertThat(customerTokenRevocations.status(2L, issuedAt)).isEqualTo(Status.NOT_REVOKED);
+    }
+
+    @Test
+    void applyRevokesFromNotificationPayload() {
+        // Given
+        long revokedAt = Instant.now().getEpochSecond();
+        long expiresAt = Instant.now().plusSeconds(60).getEpochSecond();
+
+        // When
+        underTest.apply("{\"jti\":\"abc\",\"customerId\":1,\"revokedAt\":%d,\"expiresAt\":%d}"
+                .formatted(revokedAt, expiresAt));
+        underTest.apply("{\"jti\":null,\"customerId\":2,\"revokedAt\":%d,\"expiresAt\":%d}"
+                .formatted(revokedAt, expiresAt));
+
+        // Then
+        assertThat(revokedTokens.mightBeRevoked("abc", expiresAt)).isTrue();
+        assertThat(customerTokenRevocations.status(1L, Date.from(Instant.now().minusSeconds(60)))).isEqualTo(Status.NOT_REVOKED);
+        assertThat(customerTokenRevocations.status(2L, Date.from(Instant.now().minusSeconds(60)))).isEqualTo(Status.REVOKED);
+    }
+
+    @Test
+    void droppedCustomersAreAnsweredFromTheDatabase() {
+        // Given
+        customerTokenRevocations = new CustomerTokenRevocations(1, Duration.ofDays(15));
+        underTest = new TokenRevocationService(
+                jdbcTemplate, revokedTokens, customerTokenRevocations, new ObjectMapper(), Duration.ofHours(1), 100);
+        long revokedAt = Instant.now().getEpochSecond();
+        customerTokenRevocations.revoke(1L, revokedAt);
+        customerTokenRevocations.revoke(2L, revokedAt);
+        customerTokenRevocations.cleanUp();
+        when(jdbcTemplate.queryForObject(contains("FROM revoked_token"), eq(Long.class), eq(3L), eq(3L)))
+                .thenReturn(revokedAt - 30);
+
+        // When
+        boolean older = underTest.isCustomerRevoked(3L, Date.from(Instant.ofEpochSecond(revokedAt - 60)));
+        boolean newer = underTest.isCustomerRevoked(3L, Date.from(Instant.ofEpochSecond(revokedAt - 10)));
+
+        // Then
+        assertThat(older).isTrue();
+        assertThat(newer).isFalse();
+    }
+
+    @Test
+    void possibleHitsAreConfirmedAgainstTheDatabase() {
+        // Given
+        Claims claims = jwtUtil.getClaims(jwtUtil.issueToken("alex@gmail.com", 1L, List.of("ROLE_USER")));
+        revokedTokens.revoke(claims.getId(), claims.getExpiration().toInstant().getEpochSecond());
+        when(jdbcTemplate.queryForObject(contains("FROM revoked_token"), eq(Boolean.class), eq(claims.getId())))
+                .thenReturn(false);
+
+        // When
+        boolean first = underTest.isTokenRevoked(claims);
+        boolean second = underTest.isTokenRevoked(claims);
+
+        // Then
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Boolean.class), any());
+    }
+}
@@ -0,0 +1,122 @@
+package com.uhuru.security;
+
+import com.uhuru.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+    private final PasswordHashingExecutor underTest = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(2));
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void runsTaskAndRecordsIt() {
+        // When
+        String actual = underTest.execute(() -> "hashed");
+
+        // Then
+        assertThat(actual).isEqualTo("hashed");
+        assertThat(underTest.stats().completed()).isEqualTo(1);
+        assertThat(underTest.stats().rejected()).isZero();
+    }
+
+    @Test
+    void countsFailuresApartFromCompletedTasks() {
+        // When
+        assertThatThrownBy(() -> underTest.execute(() -> {
+            throw new IllegalArgumentException("bad hash");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        // Then
+        assertThat(underTest.stats().completed()).isZero();
+        assertThat(underTest.stats().failed()).isEqualTo(1);
+    }
+
+    @Test
+    void publishesOutcomesAndTimings() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        underTest.bindTo(registry);
+
+        // When
+        underTest.execute(() -> "hashed");
+
+        // Then
+        assertThat(registry.get("password.hashing.tasks").tag("outcome", "completed").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("password.hashing.tasks").tag("outcome", "failed").functionCounter().count())
+                .isZero();
+        assertThat(registry.get("password.hashing.latency").functionTimer().count()).isEqualTo(1);
+        assertThat(registry.get("password.hashing.queue.wait").functionTimer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void executeAllReturnsResultsInTaskOrder() {
+        // Given
+        PasswordHashingExecutor pool = new PasswordHashingExecutor(2, 1, Duration.ofSeconds(2));
+        List<Supplier<Integer>> tasks = IntStream.range(0, 20)
+                .<Supplier<Integer>>mapToObj(i -> () -> i * i)
+                .toList();
+
+        // When
+        List<Integer> actual = pool.executeAll(tasks);
+        pool.shutdown();
+
+        // Then
+        assertThat(actual).containsExactlyElementsOf(IntStream.range(0, 20).map(i -> i * i).boxed().toList());
+        assertThat(pool.stats().rejected()).isZero();
+    }
+
+    @Test
+    void rejectsWorkWhenThreadAndQueueAreFull() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> underTest.execute(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> underTest.execute(() -> "queued"));
+        while (underTest.stats().queueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.execute(() -> "rejected"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .satisfies(e -> assertThat(((ServiceUnavailableException) e).getRetryAfter())
+                        .isEqualTo(Duration.ofSeconds(2)));
+        assertThat(underTest.stats().rejected()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("running");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
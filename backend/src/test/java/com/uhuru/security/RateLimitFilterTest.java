@@ -0,0 +1,40 @@
+package com.uhuru.security;
+
+import com.uhuru.exception.TooManyRequestsException;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.*;
+
+class RateLimitFilterTest {
+
+    private final HandlerExceptionResolver handlerExceptionResolver = mock(HandlerExceptionResolver.class);
+    private final RateLimitFilter underTest = new RateLimitFilter(
+            new RateLimiter(100, Duration.ofMinutes(10)), handlerExceptionResolver, true,
+            2, 0.001, 20, 10, 10, 1, 5, 0.2);
+
+    @Test
+    void limitsAnAddressBeforeTheRestOfTheChainRuns() throws Exception {
+        // Given
+        // the rest of the chain starts with JWT authentication
+        FilterChain chain = mock(FilterChain.class);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+            request.addHeader("Authorization", "Bearer forged");
+            underTest.doFilter(request, new MockHttpServletResponse(), chain);
+        }
+
+        // Then
+        verify(chain, times(2)).doFilter(any(), any());
+        verify(handlerExceptionResolver).resolveException(any(), any(), any(), isA(TooManyRequestsException.class));
+    }
+}
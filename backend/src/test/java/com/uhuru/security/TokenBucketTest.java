@@ -0,0 +1,56 @@
+package com.uhuru.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        // Given
+        TokenBucket underTest = new TokenBucket(new RateLimit(3, 1), 0);
+
+        // When
+        // Then
+        assertThat(underTest.tryAcquire(0)).isZero();
+        assertThat(underTest.tryAcquire(0)).isZero();
+        assertThat(underTest.tryAcquire(0)).isZero();
+        assertThat(underTest.tryAcquire(0)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        // Given
+        TokenBucket underTest = new TokenBucket(new RateLimit(2, 2), 0);
+        underTest.tryAcquire(0);
+        underTest.tryAcquire(0);
+
+        // When
+        long tooEarly = underTest.tryAcquire(SECOND / 4);
+        long onTime = underTest.tryAcquire(SECOND / 2);
+
+        // Then
+        assertThat(tooEarly).isEqualTo(SECOND / 4);
+        assertThat(onTime).isZero();
+        assertThat(underTest.tryAcquire(SECOND / 2)).isPositive();
+    }
+
+    @Test
+    void idleTimeDoesNotAccumulateBeyondCapacity() {
+        // Given
+        TokenBucket underTest = new TokenBucket(new RateLimit(2, 1), 0);
+
+        // When
+        long later = 100 * SECOND;
+
+        // Then
+        assertThat(underTest.tryAcquire(later)).isZero();
+        assertThat(underTest.tryAcquire(later)).isZero();
+        assertThat(underTest.tryAcquire(later)).isPositive();
+    }
+}
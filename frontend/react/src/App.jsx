@@ -1,7 +1,7 @@
-import { Spinner, Text, Wrap, WrapItem } from '@chakra-ui/react';
+import { Button, Input, Spinner, Text, Wrap, WrapItem } from '@chakra-ui/react';
 import SidebarWithHeader from "./components/shared/SideBar.jsx";
 import {useEffect, useState} from "react";
-import { getCustomers} from "./services/client.js";
+import { getCustomers, searchCustomers } from "./services/client.js";
 import CardWithImage from "./components/CustomerCard.jsx";
 import CreateCustomerDrawer from "./components/CreateCustomerDrawer.jsx";
 import {errorNotification} from "./services/Notification.js";
@@ -9,12 +9,14 @@ import {errorNotification} from "./services/Notification.js";
 const App = () => {
 
     const [customers, setCustomers] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [loading, setLoading] = useState(false);
     const [err, setError] = useState("")
     const fetchCustomers = () => {
         setLoading(true);
         getCustomers().then( res => {
-            setCustomers(res.data);
+            setCustomers(res.data.customers);
+            setNextCursor(res.data.nextCursor);
         }).catch(err => {
             setError(err.response.data.message);
             errorNotification(
@@ -26,6 +28,34 @@ const App = () => {
         )
     }
 
+    const fetchMoreCustomers = () => {
+        getCustomers(nextCursor).then( res => {
+            setCustomers(customers.concat(res.data.customers));
+            setNextCursor(res.data.nextCursor);
+        }).catch(err => {
+            errorNotification(
+                err.code,
+                err.response.data.message
+            )
+        })
+    }
+
+    const search = (q) => {
+        if (q.trim().length < 3) {
+            fetchCustomers();
+            return;
+        }
+        searchCustomers(q.trim()).then( res => {
+            setCustomers(res.data);
+            setNextCursor(null);
+        }).catch(err => {
+            errorNotification(
+                err.code,
+                err.response.data.message
+            )
+        })
+    }
+
     useEffect(() => {
         fetchCustomers()
     }, [])
@@ -71,6 +101,12 @@ const App = () => {
             <CreateCustomerDrawer
                 fetchCustomers={fetchCustomers}
             />
+            <Input
+                mt={5}
+                mb={5}
+                placeholder="Search by name or email"
+                onKeyDown={e => e.key === 'Enter' && search(e.target.value)}
+            />
             <Wrap justify={"centre"} spacing={"5"}>
                 {customers.map((customer, index) => (
                     <WrapItem key={index}>
@@ -81,6 +117,9 @@ const App = () => {
                     </WrapItem>
                 ))}
             </Wrap>
+            {nextCursor && (
+                <Button mt={5} onClick={fetchMoreCustomers}>Load more</Button>
+            )}
         </SidebarWithHeader>
     )
 }
@@ -1,8 +1,18 @@
 import axios from "axios";
 
-export const getCustomers = async () => {
+export const getCustomers = async (cursor) => {
     try {
-       return await axios.get(`${import.meta.env.VITE_API_BASE_URL}/api/v1/customers`)
+       return await axios.get(`${import.meta.env.VITE_API_BASE_URL}/api/v1/customers`,
+           { params: { cursor } })
+    } catch (e) {
+        throw e;
+    }
+}
+
+export const searchCustomers = async (q) => {
+    try {
+       return await axios.get(`${import.meta.env.VITE_API_BASE_URL}/api/v1/customers/search`,
+           { params: { q } })
     } catch (e) {
         throw e;
     }